@@ -32,6 +32,12 @@ public class App extends Application {
             loadView("/com/tictactoe/fxml/menu.fxml");
             
             stage.show();
+
+            // Load the leaderboard off the UI thread so that opening it is instant
+            Thread leaderboardLoader = new Thread(
+                    com.tictactoe.repository.LeaderboardIndex::getDefault, "leaderboard-loader");
+            leaderboardLoader.setDaemon(true);
+            leaderboardLoader.start();
             logger.info("Application started successfully");
         } catch (Exception e) {
             logger.error("Error starting application", e);
@@ -41,6 +47,8 @@ public class App extends Application {
     @Override
     public void stop() {
         logger.info("Shutting down application");
+        // Commit queued game results while the connections are still open
+        com.tictactoe.repository.GameResultWriter.closeDefault();
         com.tictactoe.config.DatabaseConfig.closeAllConnections();
         logger.info("Application stopped successfully");
     }
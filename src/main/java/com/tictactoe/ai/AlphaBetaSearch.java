@@ -0,0 +1,404 @@
+package com.tictactoe.ai;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.enums.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterative-deepening negamax with alpha-beta pruning and a Zobrist-keyed
+ * transposition table. Small boards are searched to the end, which makes it
+ * a perfect player on 3x3; larger boards are searched as deep as the time
+ * budget allows, only considering cells near existing stones and scoring the
+ * horizon with a k-window heuristic that is updated incrementally around each
+ * move.
+ *
+ * <p>An instance keeps its transposition table between moves and is not
+ * thread-safe; run one search at a time per instance.</p>
+ */
+public class AlphaBetaSearch implements MoveSearch {
+    private static final Logger logger = LoggerFactory.getLogger(AlphaBetaSearch.class);
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+    public static final int DEFAULT_TABLE_BITS = 20;
+    public static final int WIN_SCORE = 1_000_000;
+    private static final int WIN_THRESHOLD = WIN_SCORE - 10_000;
+    private static final int INFINITY = Integer.MAX_VALUE - 1;
+    private static final int MAX_PLY = 64;
+    // Boards up to this many cells consider every empty cell at every node
+    private static final int FULL_WIDTH_CELLS = 25;
+    private static final int NEIGHBOR_RADIUS = 2;
+    private static final int TIME_CHECK_MASK = 0x3FF;
+    private static final long SIDE_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+
+    private final TranspositionTable table;
+    private final long timeBudgetNanos;
+
+    private Board board;
+    private int rows;
+    private int cols;
+    private int winLength;
+    private int[] windowWeights;
+    private int[][] moveBuffers;
+    private int[][] orderBuffers;
+    private int[] stones;
+    private int stoneCount;
+    private int[] stamps;
+    private int stamp;
+    private int staticEval; // Window heuristic from X's point of view
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private int rootBestMove;
+
+    public AlphaBetaSearch() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, DEFAULT_TABLE_BITS);
+    }
+
+    public AlphaBetaSearch(long timeBudgetMillis, int tableSizeBits) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.table = new TranspositionTable(tableSizeBits);
+    }
+
+    /**
+     * Searches {@code position} for the best move of {@code toMove}. The
+     * position is copied, so the caller's board is never touched.
+     */
+    @Override
+    public SearchResult findBestMove(Board position, Player toMove) {
+        long start = System.nanoTime();
+        prepare(position);
+        nodes = 0;
+        aborted = false;
+        deadline = start + timeBudgetNanos;
+        rootBestMove = -1;
+
+        int empties = board.getSize() - board.getFilledCount();
+        int bestMove = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        int maxDepth = Math.min(empties, MAX_PLY);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = negamax(toMove, depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= WIN_THRESHOLD) {
+                break; // Forced result found, deeper search cannot change it
+            }
+        }
+        if (bestMove < 0 && empties > 0) {
+            // Out of time before depth 1 finished, fall back to the best-ordered move
+            generateMoves(0, TranspositionTable.NO_MOVE);
+            bestMove = moveBuffers[0][0];
+        }
+
+        SearchResult result = new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                System.nanoTime() - start, table.getHitRate());
+        logger.info("AI search: {}", result);
+        return result;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    private void prepare(Board position) {
+        boolean sameGeometry = board != null && rows == position.getRows()
+                && cols == position.getCols() && winLength == position.getWinLength();
+        board = position.copy();
+        if (!sameGeometry) {
+            rows = board.getRows();
+            cols = board.getCols();
+            winLength = board.getWinLength();
+            int size = board.getSize();
+            moveBuffers = new int[MAX_PLY + 1][size];
+            orderBuffers = new int[MAX_PLY + 1][size];
+            stones = new int[size];
+            stamps = new int[size];
+            windowWeights = new int[winLength + 1];
+            int weight = 1;
+            for (int i = 1; i <= winLength; i++) {
+                windowWeights[i] = weight;
+                weight = Math.min(weight * 10, WIN_THRESHOLD / 1000);
+            }
+            // Keys of a different geometry would map to unrelated cells
+            table.clear();
+        }
+        table.resetStats();
+        stoneCount = 0;
+        for (int i = 0; i < board.getSize(); i++) {
+            if (!board.isEmpty(i)) {
+                stones[stoneCount++] = i;
+            }
+        }
+        staticEval = evaluate();
+    }
+
+    private int negamax(Player side, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long key = board.getHash() ^ (side == Player.O ? SIDE_TO_MOVE_KEY : 0L);
+        int originalAlpha = alpha;
+        int tableMove = TranspositionTable.NO_MOVE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            tableMove = TranspositionTable.moveOf(entry);
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    return score;
+                } else if (bound == TranspositionTable.LOWER_BOUND) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        Player opponent = side == Player.X ? Player.O : Player.X;
+        int[] moves = moveBuffers[ply];
+        int count = generateMoves(ply, tableMove);
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int evalBefore = staticEval;
+            staticEval -= windowsThrough(move);
+            board.place(move, side);
+            staticEval += windowsThrough(move);
+            stones[stoneCount++] = move;
+            int score;
+            if (board.isWinningMove(move)) {
+                score = WIN_SCORE - ply; // Prefer quicker wins
+            } else if (board.isFull()) {
+                score = 0;
+            } else if (depth == 1) {
+                score = side == Player.X ? staticEval : -staticEval;
+            } else {
+                score = -negamax(opponent, depth - 1, -beta, -alpha, ply + 1);
+            }
+            stoneCount--;
+            board.clear(move);
+            staticEval = evalBefore;
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND
+                : TranspositionTable.EXACT;
+        table.store(key, depth, toTableScore(best, ply), bound, bestMove);
+        return best;
+    }
+
+    /**
+     * Win scores count plies from the root, but a table entry is read back at
+     * whatever ply the position recurs, also in later searches. They are
+     * stored as the distance from the entry's own position instead.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= WIN_THRESHOLD && score <= WIN_SCORE) {
+            return score + ply;
+        } else if (score <= -WIN_THRESHOLD && score >= -WIN_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score - ply;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Fills {@code moveBuffers[ply]} with candidate moves, best first, and
+     * returns how many there are.
+     */
+    private int generateMoves(int ply, int tableMove) {
+        int[] moves = moveBuffers[ply];
+        int size = board.getSize();
+        int count = 0;
+        if (size <= FULL_WIDTH_CELLS || stoneCount == 0) {
+            if (stoneCount == 0 && size > FULL_WIDTH_CELLS) {
+                moves[count++] = board.indexOf(rows / 2, cols / 2);
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (board.isEmpty(i)) {
+                        moves[count++] = i;
+                    }
+                }
+            }
+        } else {
+            stamp++;
+            for (int s = 0; s < stoneCount; s++) {
+                int row = stones[s] / cols;
+                int col = stones[s] % cols;
+                for (int r = Math.max(0, row - NEIGHBOR_RADIUS); r <= Math.min(rows - 1, row + NEIGHBOR_RADIUS); r++) {
+                    for (int c = Math.max(0, col - NEIGHBOR_RADIUS); c <= Math.min(cols - 1, col + NEIGHBOR_RADIUS); c++) {
+                        int index = r * cols + c;
+                        if (stamps[index] != stamp && board.isEmpty(index)) {
+                            stamps[index] = stamp;
+                            moves[count++] = index;
+                        }
+                    }
+                }
+            }
+            if (count == 0) {
+                for (int i = 0; i < size; i++) {
+                    if (board.isEmpty(i)) {
+                        moves[count++] = i;
+                    }
+                }
+            }
+        }
+        orderMoves(moves, orderBuffers[ply], count, tableMove);
+        return count;
+    }
+
+    private void orderMoves(int[] moves, int[] keys, int count, int tableMove) {
+        for (int i = 0; i < count; i++) {
+            keys[i] = moves[i] == tableMove ? Integer.MAX_VALUE : localScore(moves[i]);
+        }
+        // Insertion sort, descending; candidate lists are short
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                moves[j + 1] = moves[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Cheap move-ordering score: squared lengths of the runs of either colour
+     * that a stone on {@code index} would touch.
+     */
+    private int localScore(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int score = 0;
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            int dr = DIRECTION_ROWS[d];
+            int dc = DIRECTION_COLS[d];
+            int xRun = run(row, col, dr, dc, Player.X) + run(row, col, -dr, -dc, Player.X);
+            int oRun = run(row, col, dr, dc, Player.O) + run(row, col, -dr, -dc, Player.O);
+            score += xRun * xRun + oRun * oRun;
+        }
+        return score;
+    }
+
+    private int run(int row, int col, int dr, int dc, Player player) {
+        int count = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (count < winLength && board.isInside(r, c) && board.get(r, c) == player) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+
+    /**
+     * Full static evaluation from X's point of view: every window of k cells
+     * holding stones of only one colour scores by how many it holds. Only used
+     * at the root; the search keeps it current with {@link #windowsThrough}.
+     */
+    private int evaluate() {
+        int total = 0;
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            int dr = DIRECTION_ROWS[d];
+            int dc = DIRECTION_COLS[d];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    if (board.isInside(row + (winLength - 1) * dr, col + (winLength - 1) * dc)) {
+                        total += windowScore(row, col, dr, dc);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sum of the scores of every window that contains {@code index}; the only
+     * windows a stone there can change.
+     */
+    private int windowsThrough(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int total = 0;
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            int dr = DIRECTION_ROWS[d];
+            int dc = DIRECTION_COLS[d];
+            for (int offset = 0; offset < winLength; offset++) {
+                int startRow = row - offset * dr;
+                int startCol = col - offset * dc;
+                if (board.isInside(startRow, startCol)
+                        && board.isInside(startRow + (winLength - 1) * dr, startCol + (winLength - 1) * dc)) {
+                    total += windowScore(startRow, startCol, dr, dc);
+                }
+            }
+        }
+        return total;
+    }
+
+    private int windowScore(int row, int col, int dr, int dc) {
+        int xCount = 0;
+        int oCount = 0;
+        for (int i = 0; i < winLength; i++) {
+            Player player = board.get(row + i * dr, col + i * dc);
+            if (player == Player.X) {
+                xCount++;
+            } else if (player == Player.O) {
+                oCount++;
+            }
+        }
+        if (oCount == 0) {
+            return windowWeights[xCount];
+        }
+        if (xCount == 0) {
+            return -windowWeights[oCount];
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,345 @@
+package com.tictactoe.ai;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.enums.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tree-parallel Monte Carlo Tree Search for boards too large to search
+ * exhaustively.
+ *
+ * <p>All worker threads descend one shared tree with UCT selection. Node
+ * statistics live in a single packed long updated with atomic adds, and a
+ * visit is counted on the way down before its result is known (a virtual
+ * loss), which steers concurrent threads towards different branches without
+ * any locking. Children are created once and published with a
+ * compare-and-set. Each worker plays out from its own board copy with random
+ * moves.</p>
+ */
+public class MonteCarloTreeSearch implements MoveSearch, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MonteCarloTreeSearch.class);
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+    private static final double EXPLORATION = Math.sqrt(2);
+    // A leaf is expanded once it has been visited this often
+    private static final int EXPANSION_VISITS = 2;
+    // Boards up to this many cells expand every empty cell
+    private static final int FULL_WIDTH_CELLS = 25;
+    private static final int NEIGHBOR_RADIUS = 1;
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final long timeBudgetNanos;
+
+    public MonteCarloTreeSearch() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public MonteCarloTreeSearch(int threads, long timeBudgetMillis) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required: " + threads);
+        }
+        this.threads = threads;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public SearchResult findBestMove(Board position, Player toMove) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetNanos;
+        if (position.isFull()) {
+            return new SearchResult(-1, 0, 0, 0, System.nanoTime() - start, 0.0);
+        }
+
+        Node root = new Node(-1, opponent(toMove), null);
+        Board rootBoard = position.copy();
+        Node[] rootChildren = root.expand(rootBoard, toMove);
+        for (Node child : rootChildren) {
+            if (child.outcome == toMove) {
+                // Immediate win, nothing to think about
+                return new SearchResult(child.move, 1000, 1, 0, System.nanoTime() - start, 0.0);
+            }
+        }
+
+        List<Future<long[]>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            long seed = start * 31 + i;
+            results.add(workers.submit(() -> runWorker(root, position, toMove, deadline, seed)));
+        }
+        long playouts = 0;
+        int maxDepth = 0;
+        try {
+            for (Future<long[]> result : results) {
+                long[] counters = result.get();
+                playouts += counters[0];
+                maxDepth = (int) Math.max(maxDepth, counters[1]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search worker failed", e.getCause());
+        }
+
+        Node best = rootChildren[0];
+        for (Node child : rootChildren) {
+            if (child.visits() > best.visits()) {
+                best = child;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        int score = best.visits() > 0 ? (int) (1000L * best.score() / (2L * best.visits())) : 0;
+        SearchResult searchResult = new SearchResult(best.move, score, maxDepth, playouts, elapsed, 0.0);
+        logger.info("MCTS search: {} playouts in {} ms ({} playouts/s) on {} threads, best move {} with {} visits",
+                playouts, elapsed / 1_000_000, Math.round(searchResult.getNodesPerSecond()), threads,
+                best.move, best.visits());
+        return searchResult;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs select/expand/playout/backpropagate iterations until the deadline.
+     *
+     * @return {playouts, deepest tree path}
+     */
+    private long[] runWorker(Node root, Board position, Player toMove, long deadline, long seed) {
+        Board board = position.copy();
+        SplittableRandom random = new SplittableRandom(seed);
+        int size = board.getSize();
+        Node[] path = new Node[size + 2];
+        int[] played = new int[size];
+        int[] empties = new int[size];
+        long playouts = 0;
+        int maxDepth = 0;
+
+        while (System.nanoTime() < deadline) {
+            int depth = 0;
+            int playedCount = 0;
+            Node node = root;
+            Player side = toMove;
+            Player outcome = null;
+            root.addVisit();
+            path[depth++] = root;
+
+            // Selection and expansion
+            while (true) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node != root && node.visits() < EXPANSION_VISITS) {
+                        break;
+                    }
+                    children = node.expand(board, side);
+                }
+                Node child = select(node, children);
+                child.addVisit();
+                board.place(child.move, side);
+                played[playedCount++] = child.move;
+                path[depth++] = child;
+                node = child;
+                side = opponent(side);
+                if (child.outcome != null) {
+                    outcome = child.outcome;
+                    break;
+                }
+            }
+
+            // Random playout from the new leaf
+            if (outcome == null) {
+                int emptyCount = 0;
+                for (int i = 0; i < size; i++) {
+                    if (board.isEmpty(i)) {
+                        empties[emptyCount++] = i;
+                    }
+                }
+                outcome = Player.NONE;
+                while (emptyCount > 0) {
+                    int pick = random.nextInt(emptyCount);
+                    int move = empties[pick];
+                    empties[pick] = empties[--emptyCount];
+                    board.place(move, side);
+                    played[playedCount++] = move;
+                    if (board.isWinningMove(move)) {
+                        outcome = side;
+                        break;
+                    }
+                    side = opponent(side);
+                }
+            }
+
+            // Backpropagation, scored in half points for the player who moved into each node
+            for (int i = 0; i < depth; i++) {
+                Node visited = path[i];
+                visited.addScore(outcome == Player.NONE ? 1 : outcome == visited.mover ? 2 : 0);
+            }
+            for (int i = 0; i < playedCount; i++) {
+                board.clear(played[i]);
+            }
+            playouts++;
+            maxDepth = Math.max(maxDepth, depth - 1);
+        }
+        return new long[] {playouts, maxDepth};
+    }
+
+    private static Node select(Node parent, Node[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits()));
+        Node best = children[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            long stats = child.stats;
+            long visits = stats >>> 32;
+            if (visits == 0) {
+                return child;
+            }
+            double value = (stats & 0xFFFFFFFFL) / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static Player opponent(Player player) {
+        return player == Player.X ? Player.O : Player.X;
+    }
+
+    private static final class Node {
+        private static final VarHandle STATS;
+        private static final VarHandle CHILDREN;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                STATS = lookup.findVarHandle(Node.class, "stats", long.class);
+                CHILDREN = lookup.findVarHandle(Node.class, "children", Node[].class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final int move;
+        final Player mover;
+        // null while the game goes on, NONE for a draw, otherwise the winner
+        final Player outcome;
+        volatile Node[] children;
+        // Visits in the high 32 bits, score in half points in the low 32 bits
+        volatile long stats;
+
+        Node(int move, Player mover, Player outcome) {
+            this.move = move;
+            this.mover = mover;
+            this.outcome = outcome;
+        }
+
+        long visits() {
+            return stats >>> 32;
+        }
+
+        long score() {
+            return stats & 0xFFFFFFFFL;
+        }
+
+        void addVisit() {
+            STATS.getAndAdd(this, 1L << 32);
+        }
+
+        void addScore(int halfPoints) {
+            if (halfPoints != 0) {
+                STATS.getAndAdd(this, (long) halfPoints);
+            }
+        }
+
+        /**
+         * Creates the children for {@code side} to move on {@code board}. If
+         * another thread got there first its children are used instead.
+         */
+        Node[] expand(Board board, Player side) {
+            int[] candidates = candidateMoves(board);
+            Node[] created = new Node[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                int move = candidates[i];
+                board.place(move, side);
+                Player result = board.isWinningMove(move) ? side : board.isFull() ? Player.NONE : null;
+                board.clear(move);
+                created[i] = new Node(move, side, result);
+            }
+            if (CHILDREN.compareAndSet(this, (Node[]) null, created)) {
+                return created;
+            }
+            return children;
+        }
+
+        private static int[] candidateMoves(Board board) {
+            int size = board.getSize();
+            int rows = board.getRows();
+            int cols = board.getCols();
+            boolean[] candidate = new boolean[size];
+            int count = 0;
+            if (board.getFilledCount() == 0 && size > FULL_WIDTH_CELLS) {
+                return new int[] {board.indexOf(rows / 2, cols / 2)};
+            }
+            if (size > FULL_WIDTH_CELLS) {
+                for (int i = 0; i < size; i++) {
+                    if (board.isEmpty(i)) {
+                        continue;
+                    }
+                    int row = i / cols;
+                    int col = i % cols;
+                    for (int r = Math.max(0, row - NEIGHBOR_RADIUS); r <= Math.min(rows - 1, row + NEIGHBOR_RADIUS); r++) {
+                        for (int c = Math.max(0, col - NEIGHBOR_RADIUS); c <= Math.min(cols - 1, col + NEIGHBOR_RADIUS); c++) {
+                            int index = r * cols + c;
+                            if (!candidate[index] && board.isEmpty(index)) {
+                                candidate[index] = true;
+                                count++;
+                            }
+                        }
+                    }
+                }
+            }
+            if (count == 0) {
+                // Small board, or every cell near a stone is taken
+                for (int i = 0; i < size; i++) {
+                    if (board.isEmpty(i)) {
+                        candidate[i] = true;
+                        count++;
+                    }
+                }
+            }
+            int[] moves = new int[count];
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                if (candidate[i]) {
+                    moves[next++] = i;
+                }
+            }
+            return moves;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.tictactoe.ai;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.enums.Player;
+
+/**
+ * A computer player that picks a move for a position. The returned cell index
+ * is {@code row * cols + col}, i.e. what {@code GameService.makeMove(row, col)}
+ * expects after splitting by the board's column count.
+ */
+public interface MoveSearch {
+    SearchResult findBestMove(Board position, Player toMove);
+}
@@ -0,0 +1,119 @@
+package com.tictactoe.ai;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.enums.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Read-only, memory-mapped table of perfect play for classic 3x3.
+ *
+ * <p>Every position is addressed directly by its base-3 code relative to the
+ * side to move (0 empty, 1 own stone, 2 opponent stone, cell i weighted
+ * 3^i), so a lookup is nine cell reads and one byte load with no search and
+ * no allocation. Each byte holds the best cell in its low four bits and the
+ * game value for the side to move in bits 4-5. The file is written by
+ * {@link PerfectPlayTableGenerator}.</p>
+ */
+public class PerfectPlayTable {
+    private static final Logger logger = LoggerFactory.getLogger(PerfectPlayTable.class);
+    public static final Path DEFAULT_PATH = Paths.get("perfect-play.bin");
+    static final int MAGIC = 0x54545450; // "TTTP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int CELLS = 9;
+    static final int POSITIONS = 19683; // 3^9
+
+    public static final int UNKNOWN = 0;
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+    static final int NO_MOVE = 0xF;
+
+    private static Optional<PerfectPlayTable> defaultTable;
+
+    private final MappedByteBuffer buffer;
+
+    private PerfectPlayTable(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps an existing table file read-only.
+     */
+    public static PerfectPlayTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + POSITIONS) {
+                throw new IOException("Unexpected perfect-play table size " + channel.size() + " in " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " perfect-play table: " + path);
+            }
+            logger.info("Mapped perfect-play table from {}", path);
+            return new PerfectPlayTable(buffer);
+        }
+    }
+
+    /**
+     * Returns the table at {@link #DEFAULT_PATH}, generating the file first if
+     * it does not exist yet. Empty if the table can be neither read nor written.
+     */
+    public static synchronized Optional<PerfectPlayTable> getDefault() {
+        if (defaultTable == null) {
+            try {
+                if (!Files.exists(DEFAULT_PATH)) {
+                    new PerfectPlayTableGenerator().writeTo(DEFAULT_PATH);
+                }
+                defaultTable = Optional.of(open(DEFAULT_PATH));
+            } catch (IOException e) {
+                logger.error("Perfect-play table unavailable, falling back to search", e);
+                defaultTable = Optional.empty();
+            }
+        }
+        return defaultTable;
+    }
+
+    public static boolean supports(Board board) {
+        return board.getRows() == 3 && board.getCols() == 3 && board.getWinLength() == 3;
+    }
+
+    /**
+     * Best cell index for {@code toMove}, or -1 if the board is not classic
+     * 3x3, the game is over, or the position cannot arise from normal play.
+     */
+    public int bestMove(Board board, Player toMove) {
+        int entry = entry(board, toMove);
+        int move = entry & 0xF;
+        return move == NO_MOVE || (entry >>> 4) == UNKNOWN ? -1 : move;
+    }
+
+    /**
+     * Game value for {@code toMove} under perfect play: {@link #WIN},
+     * {@link #DRAW}, {@link #LOSS} or {@link #UNKNOWN}.
+     */
+    public int value(Board board, Player toMove) {
+        return entry(board, toMove) >>> 4;
+    }
+
+    private int entry(Board board, Player toMove) {
+        if (!supports(board)) {
+            return NO_MOVE;
+        }
+        int code = 0;
+        for (int i = CELLS - 1; i >= 0; i--) {
+            Player cell = board.get(i);
+            code = code * 3 + (cell == Player.NONE ? 0 : cell == toMove ? 1 : 2);
+        }
+        return buffer.get(HEADER_BYTES + code) & 0xFF;
+    }
+}
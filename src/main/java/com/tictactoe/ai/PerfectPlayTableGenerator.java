@@ -0,0 +1,116 @@
+package com.tictactoe.ai;
+
+import com.tictactoe.model.entity.Game;
+import com.tictactoe.model.enums.GameState;
+import com.tictactoe.model.enums.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Solves every position reachable in classic 3x3 by playing it out with the
+ * {@link Game} model, and writes the {@link PerfectPlayTable} file.
+ *
+ * <p>Usage: {@code java com.tictactoe.ai.PerfectPlayTableGenerator [output-path]}</p>
+ */
+public class PerfectPlayTableGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(PerfectPlayTableGenerator.class);
+
+    private final byte[] entries = new byte[PerfectPlayTable.POSITIONS];
+    private int solvedPositions;
+
+    public static void main(String[] args) throws IOException {
+        Path output = args.length > 0 ? Paths.get(args[0]) : PerfectPlayTable.DEFAULT_PATH;
+        new PerfectPlayTableGenerator().writeTo(output);
+    }
+
+    public void writeTo(Path output) throws IOException {
+        long start = System.nanoTime();
+        solve(new Game());
+        Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), "perfect-play", ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeInt(PerfectPlayTable.MAGIC);
+            out.writeInt(PerfectPlayTable.VERSION);
+            out.write(entries);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote perfect-play table with {} positions to {} in {} ms",
+                solvedPositions, output, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the value of {@code game} for the side to move, filling in the
+     * table entry for it and every position below it.
+     */
+    private int solve(Game game) {
+        int code = encode(game);
+        int known = entries[code] >>> 4 & 0x3;
+        if (known != PerfectPlayTable.UNKNOWN) {
+            return known;
+        }
+
+        int value;
+        int bestMove = PerfectPlayTable.NO_MOVE;
+        if (game.getState() == GameState.DRAW) {
+            value = PerfectPlayTable.DRAW;
+        } else if (game.getState() != GameState.IN_PROGRESS) {
+            value = PerfectPlayTable.LOSS; // The previous move won
+        } else {
+            value = PerfectPlayTable.UNKNOWN;
+            List<Integer> moves = game.getMoves();
+            for (int cell = 0; cell < PerfectPlayTable.CELLS; cell++) {
+                if (game.getCell(cell / 3, cell % 3) != Player.NONE) {
+                    continue;
+                }
+                Game child = replay(moves, cell);
+                int childValue = solve(child);
+                int ourValue = PerfectPlayTable.WIN + PerfectPlayTable.LOSS - childValue;
+                // Take immediate wins over slower ones so the table never dawdles
+                boolean immediateWin = child.getState() != GameState.IN_PROGRESS
+                        && child.getState() != GameState.DRAW;
+                if (ourValue > value || immediateWin) {
+                    value = ourValue;
+                    bestMove = cell;
+                    if (immediateWin) {
+                        break;
+                    }
+                }
+            }
+        }
+        entries[code] = (byte) (value << 4 | bestMove);
+        solvedPositions++;
+        return value;
+    }
+
+    private static Game replay(List<Integer> moves, int nextCell) {
+        Game game = new Game();
+        for (int move : moves) {
+            game.makeMove(move / 3, move % 3);
+        }
+        game.makeMove(nextCell / 3, nextCell % 3);
+        return game;
+    }
+
+    private static int encode(Game game) {
+        // Game does not switch sides once it is over, so the side to move is
+        // the opponent of whoever made the last move
+        Player toMove = game.getState() == GameState.IN_PROGRESS
+                ? game.getCurrentPlayer()
+                : game.getCurrentPlayer() == Player.X ? Player.O : Player.X;
+        int code = 0;
+        for (int cell = PerfectPlayTable.CELLS - 1; cell >= 0; cell--) {
+            Player stone = game.getCell(cell / 3, cell % 3);
+            code = code * 3 + (stone == Player.NONE ? 0 : stone == toMove ? 1 : 2);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tictactoe.ai;
+
+/**
+ * Outcome of one {@link MoveSearch#findBestMove} call, with the counters
+ * needed to tune the search. For Monte Carlo search, nodes are playouts and
+ * depth is the deepest tree path.
+ */
+public class SearchResult {
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final double tableHitRate;
+
+    public SearchResult(int move, int score, int depth, long nodes, long elapsedNanos, double tableHitRate) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.tableHitRate = tableHitRate;
+    }
+
+    /**
+     * Best cell index ({@code row * cols + col}), or -1 if the board is full.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Deepest fully completed iteration.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos > 0 ? nodes * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    public double getTableHitRate() {
+        return tableHitRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("move=%d score=%d depth=%d nodes=%d time=%.2fms nodes/s=%.0f tt-hit=%.1f%%",
+                move, score, depth, nodes, elapsedNanos / 1_000_000.0, getNodesPerSecond(), tableHitRate * 100);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tictactoe.ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, always-allocated transposition table keyed by Zobrist hash.
+ * Each slot packs score, best move, depth and bound type into one long, so
+ * the table never grows and lookups allocate nothing.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    public static final int NO_MOVE = 0xFFFF;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    /**
+     * @param sizeBits the table holds {@code 1 << sizeBits} entries
+     */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 28) {
+            throw new IllegalArgumentException("Table size bits must be between 1 and 28: " + sizeBits);
+        }
+        int capacity = 1 << sizeBits;
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the packed entry stored for {@code key}, or 0 if there is none.
+     */
+    public long probe(long key) {
+        probes++;
+        int slot = slot(key);
+        long entry = entries[slot];
+        if (entry != 0 && keys[slot] == key) {
+            hits++;
+            return entry;
+        }
+        return 0;
+    }
+
+    public void store(long key, int depth, int score, int bound, int bestMove) {
+        int slot = slot(key);
+        // Prefer keeping the deeper result for the same position
+        if (keys[slot] == key && entries[slot] != 0 && depthOf(entries[slot]) > depth) {
+            return;
+        }
+        keys[slot] = key;
+        entries[slot] = ((long) score << 32)
+                | ((long) (bestMove & 0xFFFF) << 16)
+                | ((long) (depth & 0xFF) << 8)
+                | bound;
+    }
+
+    public static int scoreOf(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    public static int moveOf(long entry) {
+        return (int) (entry >>> 16) & 0xFFFF;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 8) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) entry & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+        resetStats();
+    }
+
+    public void resetStats() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return probes > 0 ? (double) hits / probes : 0.0;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
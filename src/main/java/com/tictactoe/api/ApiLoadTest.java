@@ -0,0 +1,367 @@
+package com.tictactoe.api;
+
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Load-test client for {@link GameApiServer}. Runs many concurrent clients,
+ * each on its own keep-alive connection playing both sides of one game after
+ * another with one request in flight, and reports requests/sec and latency
+ * percentiles.
+ *
+ * <p>All clients share one selector thread speaking just enough HTTP/1.1 for
+ * the API, so ten thousand clients cost ten thousand sockets and no threads,
+ * and the client's own overhead stays small next to the server's. With the
+ * embedded server both ends share one process and its file descriptor limit;
+ * for the largest runs start {@code GameApiServer} separately and pass
+ * {@code --port}.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.api.ApiLoadTest [--host localhost]
+ * [--port 8080] [--clients 10000] [--duration-seconds 10] [--warmup-seconds 2]
+ * [--mode CLASSIC] [--server-threads 64] [--persist] [--seed N]}. Without
+ * {@code --port} an embedded, in-memory server is started on an ephemeral
+ * port.</p>
+ */
+public class ApiLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ApiLoadTest.class);
+    private static final int BUFFER_SIZE = 8192;
+    private static final long RECONNECT_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private String host = "localhost";
+    private int port;
+    private int clients = 10_000;
+    private long durationSeconds = 10;
+    private long warmupSeconds = 2;
+    private GameMode mode = GameMode.CLASSIC;
+    private int serverThreads = GameApiServer.DEFAULT_THREADS;
+    private boolean persist;
+    private long seed = 42;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long errors;
+    private long games;
+    private int pendingReconnects;
+    private Selector selector;
+    private InetSocketAddress address;
+
+    public static void main(String[] args) throws IOException {
+        ApiLoadTest test = new ApiLoadTest();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host": test.host = args[++i]; break;
+                case "--port": test.port = Integer.parseInt(args[++i]); break;
+                case "--clients": test.clients = Integer.parseInt(args[++i]); break;
+                case "--duration-seconds": test.durationSeconds = Long.parseLong(args[++i]); break;
+                case "--warmup-seconds": test.warmupSeconds = Long.parseLong(args[++i]); break;
+                case "--mode": test.mode = GameMode.valueOf(args[++i].toUpperCase()); break;
+                case "--server-threads": test.serverThreads = Integer.parseInt(args[++i]); break;
+                case "--persist": test.persist = true; break;
+                case "--seed": test.seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (test.mode.isEndless()) {
+            // Clients track the board locally and cannot predict cleared tiles
+            throw new IllegalArgumentException("Endless mode is not supported by the load test");
+        }
+        if (test.port != 0) {
+            System.out.println(test.run());
+            return;
+        }
+        try (GameApiServer server = GameApiServer.create(test.serverThreads, !test.persist, false)) {
+            InetSocketAddress bound = server.start(new InetSocketAddress("localhost", 0));
+            test.host = bound.getHostString();
+            test.port = bound.getPort();
+            System.out.println(test.run());
+        }
+    }
+
+    public Result run() throws IOException {
+        logger.info("Starting {} clients against {}:{}", clients, host, port);
+        address = new InetSocketAddress(host, port);
+        SplittableRandom random = new SplittableRandom(seed);
+        Client[] all = new Client[clients];
+        try (Selector opened = Selector.open()) {
+            selector = opened;
+            for (int i = 0; i < clients; i++) {
+                all[i] = new Client(i, random.split());
+                all[i].connect();
+            }
+
+            long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+            boolean measuring = false;
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                if (!measuring && now >= measureStart) {
+                    measuring = true;
+                    latencies.reset();
+                    errors = 0;
+                    games = 0;
+                }
+                selector.select(10);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            client.connected();
+                        } else {
+                            if (key.isWritable()) {
+                                client.flush();
+                            }
+                            if (key.isReadable()) {
+                                client.read();
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        client.failed(e);
+                    }
+                }
+                if (pendingReconnects > 0) {
+                    for (Client client : all) {
+                        client.reconnectIfDue(now);
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            return new Result(latencies, games, errors, TimeUnit.SECONDS.toNanos(durationSeconds), clients);
+        }
+    }
+
+    private final class Client {
+        private final String playerName;
+        private final SplittableRandom random;
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        private SocketChannel channel;
+        private SelectionKey key;
+        private Consumer<Map<String, String>> onResponse;
+        private long sentAt;
+        private long reconnectAt = -1;
+        private long gameId;
+        private int cols;
+        // Cells in the order this client will play them, both sides alternating
+        private int[] order = new int[0];
+        private int played;
+
+        Client(int index, SplittableRandom random) {
+            this.playerName = "Load client " + index;
+            this.random = random;
+        }
+
+        void connect() throws IOException {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+            channel.connect(address);
+        }
+
+        void connected() throws IOException {
+            channel.finishConnect();
+            createGame();
+            flush();
+        }
+
+        void failed(Exception e) {
+            errors++;
+            logger.debug("Client {} failed: {}", playerName, e.toString());
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                logger.debug("Error closing client connection", closeFailure);
+            }
+            // Back off briefly so a failing server is not hammered
+            reconnectAt = System.nanoTime() + RECONNECT_DELAY_NANOS;
+            pendingReconnects++;
+        }
+
+        void reconnectIfDue(long now) {
+            if (reconnectAt >= 0 && now >= reconnectAt) {
+                reconnectAt = -1;
+                pendingReconnects--;
+                in.clear();
+                out.clear();
+                try {
+                    connect();
+                } catch (IOException e) {
+                    failed(e);
+                }
+            }
+        }
+
+        private void createGame() {
+            String body = "{\"player1\":\"" + playerName + "\",\"player2\":\"" + playerName
+                    + " opponent\",\"mode\":\"" + mode.name() + "\"}";
+            post("/games", body, this::gameCreated);
+        }
+
+        private void gameCreated(Map<String, String> game) {
+            gameId = Long.parseLong(game.get("id"));
+            int rows = Integer.parseInt(game.get("rows"));
+            cols = Integer.parseInt(game.get("cols"));
+            int cells = rows * cols;
+            if (order.length != cells) {
+                order = new int[cells];
+            }
+            for (int i = 0; i < cells; i++) {
+                int swap = random.nextInt(i + 1);
+                order[i] = order[swap];
+                order[swap] = i;
+            }
+            played = 0;
+            sendMove();
+        }
+
+        private void sendMove() {
+            int cell = order[played++];
+            String body = "{\"row\":" + cell / cols + ",\"col\":" + cell % cols + "}";
+            post("/games/" + gameId + "/moves", body, this::moveMade);
+        }
+
+        private void moveMade(Map<String, String> game) {
+            if (Boolean.parseBoolean(game.get("gameOver"))) {
+                games++;
+                createGame();
+            } else {
+                sendMove();
+            }
+        }
+
+        private void post(String path, String body, Consumer<Map<String, String>> next) {
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            String head = "POST " + path + " HTTP/1.1\r\nHost: " + host + "\r\n"
+                    + "Content-Type: application/json\r\nContent-Length: " + content.length + "\r\n\r\n";
+            out.put(head.getBytes(StandardCharsets.US_ASCII)).put(content);
+            onResponse = next;
+            sentAt = System.nanoTime();
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            int headerEnd = indexOfHeaderEnd();
+            if (headerEnd < 0) {
+                return;
+            }
+            String head = new String(in.array(), 0, headerEnd, StandardCharsets.US_ASCII);
+            int contentLength = contentLength(head);
+            int bodyStart = headerEnd + 4;
+            if (in.position() < bodyStart + contentLength) {
+                return;
+            }
+            latencies.record(System.nanoTime() - sentAt);
+            int status = Integer.parseInt(head.substring(9, 12));
+            String body = new String(in.array(), bodyStart, contentLength, StandardCharsets.UTF_8);
+            in.flip();
+            in.position(bodyStart + contentLength);
+            in.compact();
+            if (status >= 300) {
+                throw new IOException("HTTP " + status + ": " + body);
+            }
+            Consumer<Map<String, String>> next = onResponse;
+            onResponse = null;
+            next.accept(Json.parseObject(body));
+            flush();
+        }
+
+        private int indexOfHeaderEnd() {
+            byte[] bytes = in.array();
+            for (int i = 3; i < in.position(); i++) {
+                if (bytes[i] == '\n' && bytes[i - 1] == '\r' && bytes[i - 2] == '\n' && bytes[i - 3] == '\r') {
+                    return i - 3;
+                }
+            }
+            return -1;
+        }
+
+        private int contentLength(String head) {
+            for (String line : head.split("\r\n")) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    return Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            throw new IllegalStateException("Response without Content-Length");
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    public static class Result {
+        private final long requests;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+        private final long games;
+        private final long errors;
+        private final long elapsedNanos;
+        private final int clients;
+
+        Result(LatencyHistogram latencies, long games, long errors, long elapsedNanos, int clients) {
+            this.requests = latencies.getCount();
+            this.p50 = latencies.getPercentile(50);
+            this.p90 = latencies.getPercentile(90);
+            this.p99 = latencies.getPercentile(99);
+            this.p999 = latencies.getPercentile(99.9);
+            this.max = latencies.getPercentile(100);
+            this.games = games;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.clients = clients;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public double getRequestsPerSecond() {
+            return requests * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d clients sent %d requests and finished %d games in %.1f s (%d errors)%n"
+                            + "  %.0f requests/s%n"
+                            + "  Latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                    clients, requests, games, elapsedNanos / 1_000_000_000.0, errors,
+                    getRequestsPerSecond(),
+                    p50 / 1_000_000.0, p90 / 1_000_000.0, p99 / 1_000_000.0, p999 / 1_000_000.0, max / 1_000_000.0);
+        }
+    }
+}
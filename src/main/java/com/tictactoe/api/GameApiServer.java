@@ -0,0 +1,422 @@
+package com.tictactoe.api;
+
+import ch.qos.logback.classic.Level;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tictactoe.model.entity.GameEntity;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.repository.GameHistoryPage;
+import com.tictactoe.repository.GameRepository;
+import com.tictactoe.repository.GameResultWriter;
+import com.tictactoe.repository.LeaderboardIndex;
+import com.tictactoe.repository.PlayerRepository;
+import com.tictactoe.service.GameService;
+import com.tictactoe.service.GameSessionManager;
+import com.tictactoe.service.GameSnapshot;
+import com.tictactoe.service.MoveResult;
+import com.tictactoe.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Embedded HTTP/JSON API on the JDK's built-in HTTP server.
+ *
+ * <pre>
+ * POST /games               {"player1": "Ann", "player2": "Bob", "mode": "CLASSIC"}
+ * GET  /games/{id}
+ * POST /games/{id}/moves    {"row": 1, "col": 1}
+ * GET  /games/recent?limit=20
+ * GET  /games/history?player=Ann&amp;limit=20&amp;cursor=...
+ * GET  /leaderboard?limit=10&amp;sort=wins (or win_rate, rating)
+ * </pre>
+ *
+ * <p>Games are hosted by a {@link GameSessionManager}, so they may be shared
+ * with the TCP {@code GameServer}. Finished games and player stats are
+ * recorded through {@link GameRepository} and {@link PlayerRepository}
+ * unless the server runs in memory. The leaderboard is served from the
+ * in-memory {@link LeaderboardIndex}.</p>
+ *
+ * <p>Requests run on a fixed pool of worker threads. Handlers block on JDBC,
+ * so the pool is sized well above the core count; on a Java 21 runtime the
+ * pool can be swapped for a virtual-thread-per-task executor through
+ * {@link #GameApiServer(GameSessionManager, LeaderboardIndex, PlayerRepository, GameRepository, ExecutorService)}.</p>
+ *
+ * <p>A player's history is returned a page at a time, newest first, with
+ * a {@code next} cursor to pass back for the following page.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.api.GameApiServer [--port 8080]
+ * [--threads 64] [--in-memory] [--verbose]}</p>
+ */
+public class GameApiServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameApiServer.class);
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_THREADS = 64;
+    private static final int ACCEPT_BACKLOG = 4096;
+    private static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    private static final int MAX_LIST_SIZE = 1000;
+    private static final int MAX_BODY_BYTES = 4096;
+    private static final int MAX_IDLE_CONNECTIONS = 20_000;
+
+    private final GameSessionManager sessions;
+    private final LeaderboardIndex leaderboard;
+    private final PlayerRepository playerRepository;
+    private final GameRepository gameRepository;
+    private final ExecutorService executor;
+    private HttpServer server;
+    private boolean ownsSessions;
+
+    public GameApiServer(GameSessionManager sessions, LeaderboardIndex leaderboard, PlayerRepository playerRepository,
+                         GameRepository gameRepository, ExecutorService executor) {
+        this.sessions = sessions;
+        this.leaderboard = leaderboard;
+        this.playerRepository = playerRepository;
+        this.gameRepository = gameRepository;
+        this.executor = executor;
+    }
+
+    public GameApiServer(GameSessionManager sessions, LeaderboardIndex leaderboard, PlayerRepository playerRepository,
+                         GameRepository gameRepository, int threads) {
+        this(sessions, leaderboard, playerRepository, gameRepository, newWorkerPool(threads));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = DEFAULT_THREADS;
+        boolean inMemory = false;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--in-memory": inMemory = true; break;
+                case "--verbose": verbose = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        GameApiServer server = create(threads, inMemory, verbose);
+        server.start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    }
+
+    /**
+     * Wires a server with its own session manager and repositories.
+     */
+    static GameApiServer create(int threads, boolean inMemory, boolean verbose) {
+        if (!verbose) {
+            quietGameLogging();
+        }
+        PlayerRepository playerRepository = new PlayerRepository();
+        GameRepository gameRepository = new GameRepository();
+        Supplier<GameService> serviceFactory = inMemory
+                ? GameService::new
+                : () -> new GameService(gameRepository, playerRepository, GameResultWriter.getDefault());
+        GameApiServer server = new GameApiServer(
+                new GameSessionManager(serviceFactory), LeaderboardIndex.getDefault(), playerRepository, gameRepository,
+                threads);
+        server.ownsSessions = true;
+        return server;
+    }
+
+    /**
+     * Per-request logging in the services and repositories would dominate
+     * the cost of serving the API.
+     */
+    private static void quietGameLogging() {
+        for (String name : new String[] {"com.tictactoe.service", "com.tictactoe.repository"}) {
+            Logger appLogger = LoggerFactory.getLogger(name);
+            if (appLogger instanceof ch.qos.logback.classic.Logger) {
+                ((ch.qos.logback.classic.Logger) appLogger).setLevel(Level.WARN);
+            }
+        }
+    }
+
+    private static ExecutorService newWorkerPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "api-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public InetSocketAddress start(InetSocketAddress address) throws IOException {
+        // Without TCP_NODELAY small JSON replies wait on delayed ACKs, about 40 ms each
+        setDefaultProperty("sun.net.httpserver.nodelay", "true");
+        // The default keeps only 200 idle keep-alive connections and closes the rest
+        setDefaultProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+        server = HttpServer.create(address, ACCEPT_BACKLOG);
+        server.createContext("/games", this::handleGames);
+        server.createContext("/leaderboard", this::handleLeaderboard);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Game API listening on {}", server.getAddress());
+        return server.getAddress();
+    }
+
+    /**
+     * Sets a JDK HTTP server tuning property unless the user already did.
+     * They are read once, when the first server is created.
+     */
+    private static void setDefaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(1);
+            server = null;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsSessions) {
+            sessions.close();
+            GameResultWriter.closeDefault();
+        }
+        logger.info("Game API stopped");
+    }
+
+    private void handleGames(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // path[0] is empty, path[1] is "games"
+            if (path.length < 2 || !path[1].equals("games")) {
+                sendError(exchange, 404, "Not found");
+            } else if (path.length == 2) {
+                requireMethod(method, "POST");
+                Map<String, String> body = readBody(exchange);
+                String modeName = body.get("mode");
+                GameMode mode = modeName == null ? GameMode.CLASSIC : GameMode.valueOf(modeName.toUpperCase());
+                GameSnapshot game = sessions.createSession(
+                        requireField(body, "player1"), requireField(body, "player2"), mode);
+                send(exchange, 201, gameJson(new StringBuilder(), game).toString());
+            } else if (path.length == 3 && path[2].equals("recent")) {
+                requireMethod(method, "GET");
+                int limit = queryInt(exchange.getRequestURI(), "limit", 20);
+                send(exchange, 200, recentGamesJson(gameRepository.findRecentGames(limit)));
+            } else if (path.length == 3 && path[2].equals("history")) {
+                requireMethod(method, "GET");
+                send(exchange, 200, historyJson(exchange.getRequestURI()));
+            } else if (path.length == 3) {
+                requireMethod(method, "GET");
+                send(exchange, 200, gameJson(new StringBuilder(), sessions.getSnapshot(parseId(path[2]))).toString());
+            } else if (path.length == 4 && path[3].equals("moves")) {
+                requireMethod(method, "POST");
+                Map<String, String> body = readBody(exchange);
+                MoveResult result = sessions.makeMove(parseId(path[2]),
+                        Integer.parseInt(requireField(body, "row")), Integer.parseInt(requireField(body, "col")));
+                StringBuilder json = gameJson(new StringBuilder(), result.getSnapshot());
+                json.setLength(json.length() - 1);
+                json.append(",\"accepted\":").append(result.isAccepted()).append('}');
+                send(exchange, result.isAccepted() ? 200 : 409, json.toString());
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (MethodNotAllowedException e) {
+            sendError(exchange, 405, e.getMessage());
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and unknown game modes
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error handling {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange.getRequestMethod(), "GET");
+            int limit = queryInt(exchange.getRequestURI(), "limit", DEFAULT_LEADERBOARD_SIZE);
+            LeaderboardIndex.SortOrder order = LeaderboardIndex.SortOrder.valueOf(
+                    queryString(exchange.getRequestURI(), "sort", "wins").toUpperCase());
+            List<PlayerEntity> players = leaderboard.top(order, limit);
+            StringBuilder json = new StringBuilder(64 + players.size() * 80).append('[');
+            for (int i = 0; i < players.size(); i++) {
+                PlayerEntity player = players.get(i);
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"rank\":").append(i + 1).append(",\"name\":");
+                Json.quote(json, player.getName());
+                json.append(",\"wins\":").append(player.getWins())
+                        .append(",\"losses\":").append(player.getLosses())
+                        .append(",\"draws\":").append(player.getDraws())
+                        .append(",\"rating\":").append(Math.round(player.getRating()))
+                        .append('}');
+            }
+            send(exchange, 200, json.append(']').toString());
+        } catch (MethodNotAllowedException e) {
+            sendError(exchange, 405, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error handling {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static StringBuilder gameJson(StringBuilder json, GameSnapshot game) {
+        json.append("{\"id\":").append(game.getSessionId())
+                .append(",\"mode\":\"").append(game.getGameMode().name())
+                .append("\",\"rows\":").append(game.getRows())
+                .append(",\"cols\":").append(game.getCols())
+                .append(",\"board\":\"").append(game.getBoard())
+                .append("\",\"player1\":");
+        Json.quote(json, game.getPlayer1Name()).append(",\"player2\":");
+        Json.quote(json, game.getPlayer2Name())
+                .append(",\"nextPlayer\":\"").append(game.getNextPlayer())
+                .append("\",\"gameOver\":").append(game.isGameOver())
+                .append(",\"result\":\"").append(game.getResult())
+                .append("\"}");
+        return json;
+    }
+
+    private static String recentGamesJson(List<GameEntity> games) {
+        StringBuilder json = new StringBuilder(64 + games.size() * 160).append('[');
+        for (int i = 0; i < games.size(); i++) {
+            GameEntity game = games.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(game.getId())
+                    .append(",\"mode\":\"").append(game.getGameMode().name())
+                    .append("\",\"player1\":");
+            Json.quote(json, game.getPlayer1Name()).append(",\"player2\":");
+            Json.quote(json, game.getPlayer2Name()).append(",\"winner\":");
+            Json.quote(json, game.getWinnerName())
+                    .append(",\"draw\":").append(game.isDraw())
+                    .append(",\"playedAt\":\"").append(game.getPlayedAt())
+                    .append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private String historyJson(URI uri) {
+        String name = queryString(uri, "player", null);
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Missing parameter: player");
+        }
+        PlayerEntity player = playerRepository.findByName(name)
+                .orElseThrow(() -> new NoSuchElementException("No player " + name));
+        String cursor = queryString(uri, "cursor", null);
+        GameHistoryPage page = gameRepository.findGamesByPlayer(player.getId(),
+                cursor == null ? null : GameHistoryPage.Cursor.decode(cursor), queryInt(uri, "limit", 20));
+        StringBuilder json = new StringBuilder("{\"games\":").append(recentGamesJson(page.getGames()))
+                .append(",\"next\":");
+        Json.quote(json, page.getNext().map(GameHistoryPage.Cursor::encode).orElse(null));
+        return json.append('}').toString();
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String requireField(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value;
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException("No game session " + id);
+        }
+    }
+
+    private static int queryInt(URI uri, String name, int defaultValue) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(name + "=")) {
+                    int value = Integer.parseInt(parameter.substring(name.length() + 1));
+                    if (value < 1 || value > MAX_LIST_SIZE) {
+                        throw new IllegalArgumentException(name + " must be between 1 and " + MAX_LIST_SIZE);
+                    }
+                    return value;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String queryString(URI uri, String name, String defaultValue) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(name + "=")) {
+                    return URLDecoder.decode(parameter.substring(name.length() + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new MethodNotAllowedException(method + " is not supported here, use " + expected);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.quote(json, message).append('}');
+        send(exchange, status, json.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final class MethodNotAllowedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.tictactoe.benchmark;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.GameEntity;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.repository.GameRepository;
+import com.tictactoe.repository.PlayerCache;
+import com.tictactoe.repository.PlayerRepository;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Mixed read/write load against the database: reader threads look up
+ * players, the leaderboard and recent games while writer threads record
+ * finished games. Reports throughput and latency percentiles for each side.
+ *
+ * <p>Runs against {@code benchmark.db} in the working directory unless
+ * {@code tictactoe.db.url} is set. Compare journal modes with
+ * {@code -Dtictactoe.db.journalMode=DELETE}.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.benchmark.DatabaseBenchmark
+ * [--readers 4] [--writers 2] [--players 100] [--duration-seconds 10]}</p>
+ */
+public class DatabaseBenchmark {
+    private static final String DEFAULT_DB_FILE = "benchmark.db";
+    private static final int WARMUP_SECONDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int readers = 4;
+        int writers = 2;
+        int players = 100;
+        int durationSeconds = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--readers":
+                    readers = Integer.parseInt(args[++i]);
+                    break;
+                case "--writers":
+                    writers = Integer.parseInt(args[++i]);
+                    break;
+                case "--players":
+                    players = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration-seconds":
+                    durationSeconds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // Must happen before DatabaseConfig is loaded
+        if (System.getProperty("tictactoe.db.url") == null) {
+            for (String suffix : new String[] {"", "-wal", "-shm", "-journal"}) {
+                new File(DEFAULT_DB_FILE + suffix).delete();
+            }
+            System.setProperty("tictactoe.db.url", "jdbc:sqlite:" + DEFAULT_DB_FILE);
+        }
+
+        try {
+            run(readers, writers, players, durationSeconds);
+        } finally {
+            DatabaseConfig.closeAllConnections();
+        }
+    }
+
+    private static void run(int readers, int writers, int playerCount, int durationSeconds)
+            throws InterruptedException {
+        PlayerRepository playerRepository = new PlayerRepository();
+        GameRepository gameRepository = new GameRepository();
+        List<PlayerEntity> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(playerRepository.findOrCreate("bench-" + i));
+        }
+
+        long warmupEnd = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long end = warmupEnd + durationSeconds * 1_000_000_000L;
+        Worker[] workers = new Worker[readers + writers];
+        CountDownLatch done = new CountDownLatch(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            boolean writer = i < writers;
+            Worker worker = new Worker(writer, new Random(i), playerRepository, gameRepository, players,
+                    warmupEnd, end, done);
+            workers[i] = worker;
+            Thread thread = new Thread(worker, (writer ? "bench-writer-" : "bench-reader-") + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        System.out.printf("Journal mode %s, %d readers, %d writers, %d s%n",
+                System.getProperty("tictactoe.db.journalMode", "WAL").toUpperCase(),
+                readers, writers, durationSeconds);
+        report("reads", workers, false, durationSeconds);
+        report("writes", workers, true, durationSeconds);
+        System.out.println("Write pool: " + DatabaseConfig.getWritePoolStats());
+        System.out.println("Read pool:  " + DatabaseConfig.getReadPoolStats());
+        System.out.println("Players:    " + PlayerCache.getDefault().stats());
+    }
+
+    private static void report(String label, Worker[] workers, boolean writers, int durationSeconds) {
+        long[] merged = new long[0];
+        long errors = 0;
+        for (Worker worker : workers) {
+            if (worker.writer == writers) {
+                long[] samples = Arrays.copyOf(worker.latencies, worker.count);
+                long[] grown = Arrays.copyOf(merged, merged.length + samples.length);
+                System.arraycopy(samples, 0, grown, merged.length, samples.length);
+                merged = grown;
+                errors += worker.errors;
+            }
+        }
+        Arrays.sort(merged);
+        System.out.printf("%-6s %10.0f/s  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  errors %d%n",
+                label, (double) merged.length / durationSeconds,
+                percentile(merged, 50) / 1e6, percentile(merged, 99) / 1e6,
+                merged.length == 0 ? 0 : merged[merged.length - 1] / 1e6, errors);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static final class Worker implements Runnable {
+        private final boolean writer;
+        private final Random random;
+        private final PlayerRepository playerRepository;
+        private final GameRepository gameRepository;
+        private final List<PlayerEntity> players;
+        private final long warmupEnd;
+        private final long end;
+        private final CountDownLatch done;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Worker(boolean writer, Random random, PlayerRepository playerRepository, GameRepository gameRepository,
+               List<PlayerEntity> players, long warmupEnd, long end, CountDownLatch done) {
+            this.writer = writer;
+            this.random = random;
+            this.playerRepository = playerRepository;
+            this.gameRepository = gameRepository;
+            this.players = players;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    try {
+                        if (writer) {
+                            write();
+                        } else {
+                            read();
+                        }
+                    } catch (RuntimeException e) {
+                        errors++;
+                    }
+                    long finished = System.nanoTime();
+                    if (now >= warmupEnd) {
+                        record(finished - now);
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void read() {
+            switch (random.nextInt(3)) {
+                case 0:
+                    playerRepository.findTopPlayers(10);
+                    break;
+                case 1:
+                    gameRepository.findRecentGames(20);
+                    break;
+                default:
+                    playerRepository.findByName(players.get(random.nextInt(players.size())).getName());
+                    break;
+            }
+        }
+
+        private void write() {
+            PlayerEntity player1 = players.get(random.nextInt(players.size()));
+            PlayerEntity player2 = players.get(random.nextInt(players.size()));
+            GameEntity game = new GameEntity();
+            game.setPlayer1Id(player1.getId());
+            game.setPlayer2Id(player2.getId());
+            int outcome = random.nextInt(3);
+            game.setDraw(outcome == 2);
+            if (outcome < 2) {
+                game.setWinnerId(outcome == 0 ? player1.getId() : player2.getId());
+            }
+            game.setGameMode(GameMode.CLASSIC);
+            game.setMoves("0,0,X;1,1,O;2,2,X;0,1,O;2,1,X;0,2,O;2,0,X;1,0,O;1,2,X");
+            game.setPlayedAt(LocalDateTime.now());
+            gameRepository.recordResult(game);
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.tictactoe.benchmark;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.enums.Player;
+import com.tictactoe.util.BoardSymmetry;
+
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures the cost of canonicalizing random positions: finding the
+ * canonical transform alone, and the full canonical position including its
+ * board.
+ *
+ * <p>Usage: {@code java com.tictactoe.benchmark.SymmetryBenchmark [positions]}</p>
+ */
+public class SymmetryBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        run(3, 3, 3, positions);
+        run(7, 7, 4, positions);
+        run(15, 15, 5, positions);
+    }
+
+    private static void run(int rows, int cols, int winLength, int positions) {
+        Board[] boards = randomPositions(rows, cols, winLength, positions, new Random(42));
+        BoardSymmetry symmetry = BoardSymmetry.of(rows, cols);
+        measure(rows + "x" + cols + " transform", boards, board -> symmetry.canonicalTransform(board).ordinal());
+        measure(rows + "x" + cols + " canonicalize", boards, board -> BoardSymmetry.canonicalize(board).getHash());
+    }
+
+    private static void measure(String name, Board[] boards, ToLongFunction<Board> operation) {
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += applyAll(boards, operation);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            checksum += applyAll(boards, operation);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %.1f ns per position (%d positions, checksum %d)%n",
+                name, (double) elapsed / ((long) boards.length * MEASURED_ROUNDS), boards.length, checksum);
+    }
+
+    private static long applyAll(Board[] boards, ToLongFunction<Board> operation) {
+        long checksum = 0;
+        for (Board board : boards) {
+            checksum += operation.applyAsLong(board);
+        }
+        return checksum;
+    }
+
+    private static Board[] randomPositions(int rows, int cols, int winLength, int count, Random random) {
+        Board[] boards = new Board[count];
+        for (int i = 0; i < count; i++) {
+            Board board = new Board(rows, cols, winLength);
+            int stones = random.nextInt(Math.min(board.getSize(), 40) + 1);
+            for (int s = 0; s < stones; s++) {
+                int cell = random.nextInt(board.getSize());
+                board.place(cell, s % 2 == 0 ? Player.X : Player.O);
+            }
+            boards[i] = board;
+        }
+        return boards;
+    }
+}
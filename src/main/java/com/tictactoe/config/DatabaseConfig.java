@@ -2,20 +2,98 @@ package com.tictactoe.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.sql.SQLTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Owns the SQLite connection pools. Connections are borrowed with
+ * {@link #getConnection()} or {@link #getReadConnection()} and must be
+ * handed back with {@link #releaseConnection(Connection)}, never closed by
+ * the caller.
+ *
+ * <p>The database runs in WAL mode, where readers never block the writer
+ * or each other but SQLite still allows only one writer at a time. The pool
+ * mirrors that: {@link #getConnection()} hands out the single read-write
+ * connection, so writers queue here instead of failing with
+ * {@code SQLITE_BUSY}, while {@link #getReadConnection()} draws from a pool
+ * of up to {@code tictactoe.db.poolSize} read-only connections.</p>
+ *
+ * <p>A borrower waits at most {@code tictactoe.db.acquireTimeoutMs} for a
+ * connection and then gets an {@link SQLTimeoutException}. Connections are
+ * opened on demand, validated when borrowed and reset when released. A
+ * connection held for longer than {@code tictactoe.db.leakThresholdMs} is
+ * reported once, with the stack trace of the code that borrowed it if
+ * {@code tictactoe.db.leakTraces} is set, as capturing it on every borrow
+ * is too costly to leave on. All settings are system properties; {@code tictactoe.db.journalMode}
+ * exists to compare against the old rollback journal, and
+ * {@code tictactoe.db.mmapSize} bounds how much of the file every
+ * connection reads through a shared memory map.</p>
+ *
+ * <p>Every pooled connection keeps its own cache of prepared statements,
+ * reached through {@link #prepare(Connection, String)}, so hot queries are
+ * parsed once per connection instead of once per call. The cache holds up
+ * to {@code tictactoe.db.statementCacheSize} statements and closes the
+ * least recently used one when it overflows.</p>
+ *
+ * <p>Other processes may write to the same file, for example an archive
+ * import or a rating recompute run from the command line. Whenever the
+ * writer connection is borrowed, and at least every
+ * {@code tictactoe.db.externalWriteCheckMs} while it is idle, SQLite's
+ * {@code data_version} tells whether anyone else committed since the last
+ * check; if so, the listeners added with
+ * {@link #addExternalWriteListener(Runnable)} are run so that in-memory
+ * copies of the data can be dropped.</p>
+ */
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-    private static final String DB_URL = "jdbc:sqlite:tictactoe.db";
-    private static final int POOL_SIZE = 5;
-    private static final BlockingQueue<Connection> connectionPool = new ArrayBlockingQueue<>(POOL_SIZE);
-    private static boolean isInitialized = false;
+    private static final String DB_URL = System.getProperty("tictactoe.db.url", "jdbc:sqlite:tictactoe.db");
+    private static final int POOL_SIZE = Integer.getInteger("tictactoe.db.poolSize", 5);
+    private static final long ACQUIRE_TIMEOUT_MILLIS = Long.getLong("tictactoe.db.acquireTimeoutMs", 5000);
+    private static final long LEAK_THRESHOLD_MILLIS = Long.getLong("tictactoe.db.leakThresholdMs", 30_000);
+    private static final boolean LEAK_TRACES = Boolean.getBoolean("tictactoe.db.leakTraces");
+    private static final SQLiteConfig.JournalMode JOURNAL_MODE =
+            SQLiteConfig.JournalMode.valueOf(System.getProperty("tictactoe.db.journalMode", "WAL").toUpperCase());
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    // Negative sizes are in KiB
+    private static final int CACHE_SIZE = -16_000;
+    // Reads pages straight from the mapped file instead of copying them into the page cache; 0 turns it off
+    private static final long MMAP_SIZE = Math.max(0, Long.getLong("tictactoe.db.mmapSize", 256L * 1024 * 1024));
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final int STATEMENT_CACHE_SIZE =
+            Math.max(1, Integer.getInteger("tictactoe.db.statementCacheSize", 32));
+    private static final long EXTERNAL_WRITE_CHECK_MILLIS =
+            Math.max(100, Long.getLong("tictactoe.db.externalWriteCheckMs", 1000));
+
+    private static final ConnectionPool writePool = new ConnectionPool("write", 1, false);
+    private static final ConnectionPool readPool = new ConnectionPool("read", POOL_SIZE, true);
+    private static final Map<Connection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private static final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "db-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicLong leaksDetected = new AtomicLong();
+    private static final List<Runnable> externalWriteListeners = new CopyOnWriteArrayList<>();
+    // Only touched by whoever holds the writer, so the write pool's permit orders every access
+    private static Connection versionedWriter;
+    private static long writerDataVersion;
 
     static {
         initializePool();
@@ -23,101 +101,464 @@ public class DatabaseConfig {
 
     private static void initializePool() {
         try {
-            for (int i = 0; i < POOL_SIZE; i++) {
-                Connection conn = createConnection();
-                if (i == 0 && !isInitialized) {
-                    initializeDatabase(conn);
-                    isInitialized = true;
-                }
-                connectionPool.offer(conn);
-            }
-            logger.info("Database connection pool initialized with {} connections", POOL_SIZE);
+            // The writer creates the database file, which read-only connections cannot
+            Connection conn = writePool.createConnection();
+            SchemaMigrations.migrate(conn);
+            writePool.idle.push(conn);
+            long checkMillis = Math.max(1000, LEAK_THRESHOLD_MILLIS / 4);
+            monitor.scheduleWithFixedDelay(DatabaseConfig::detectLeaks, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+            monitor.scheduleWithFixedDelay(DatabaseConfig::pollExternalWrites,
+                    EXTERNAL_WRITE_CHECK_MILLIS, EXTERNAL_WRITE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            logger.info("Database connection pools initialized: 1 writer and up to {} readers, {} journal, {} ms acquire timeout, "
+                    + "{} MiB mmap", POOL_SIZE, JOURNAL_MODE, ACQUIRE_TIMEOUT_MILLIS, MMAP_SIZE / (1024 * 1024));
         } catch (SQLException e) {
             logger.error("Error initializing connection pool", e);
             throw new RuntimeException("Failed to initialize connection pool", e);
         }
     }
 
-    private static Connection createConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
-    }
-
-    private static void initializeDatabase(Connection conn) throws SQLException {
-        try (Statement statement = conn.createStatement()) {
-            // Create players table
-            statement.execute("""
-                CREATE TABLE IF NOT EXISTS players (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    name TEXT NOT NULL UNIQUE,
-                    wins INTEGER DEFAULT 0,
-                    losses INTEGER DEFAULT 0,
-                    draws INTEGER DEFAULT 0,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-
-            // Create games table
-            statement.execute("""
-                CREATE TABLE IF NOT EXISTS games (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    player1_id INTEGER NOT NULL,
-                    player2_id INTEGER NOT NULL,
-                    winner_id INTEGER,
-                    is_draw BOOLEAN NOT NULL DEFAULT FALSE,
-                    game_mode TEXT NOT NULL DEFAULT 'CLASSIC',
-                    moves TEXT NOT NULL,
-                    played_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (player1_id) REFERENCES players (id),
-                    FOREIGN KEY (player2_id) REFERENCES players (id),
-                    FOREIGN KEY (winner_id) REFERENCES players (id)
-                )
-            """);
-            
-            logger.info("Database tables initialized successfully");
-        } catch (SQLException e) {
-            logger.error("Error initializing database", e);
+    /**
+     * Borrows the read-write connection, waiting up to the acquire timeout
+     * while another writer holds it. Listeners for external writes are run
+     * first if another process committed since it was last borrowed.
+     *
+     * @throws SQLTimeoutException if the connection was not released in time
+     */
+    public static Connection getConnection() throws SQLException {
+        Connection conn = writePool.borrow();
+        try {
+            checkExternalWrites(conn);
+        } catch (SQLException | RuntimeException e) {
+            releaseConnection(conn);
             throw e;
         }
+        return conn;
     }
 
-    public static Connection getConnection() throws SQLException {
+    /**
+     * Borrows a read-only connection for queries. It sees everything
+     * committed before the query starts and never waits for writers.
+     *
+     * @throws SQLTimeoutException if no connection became available in time
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return readPool.borrow();
+    }
+
+    /**
+     * Returns the connection's cached statement for the SQL, preparing it on
+     * first use. The statement belongs to the connection: callers bind every
+     * parameter, close the result sets they open and must not close the
+     * statement itself.
+     */
+    public static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        StatementCache cache = statementCaches.get(conn);
+        if (cache == null) {
+            throw new SQLException("Connection is not managed by the pool");
+        }
+        return cache.prepare(conn, sql);
+    }
+
+    /**
+     * Adds a listener run when another process is found to have committed to
+     * the database. It runs on the thread that found out, while that thread
+     * holds the writer connection, so it must not borrow the writer itself.
+     */
+    public static void addExternalWriteListener(Runnable listener) {
+        externalWriteListeners.add(listener);
+    }
+
+    /**
+     * Returns a borrowed connection to its pool. Any transaction the
+     * borrower left open is rolled back.
+     */
+    public static void releaseConnection(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        Borrow borrow = borrowed.remove(conn);
+        if (borrow == null) {
+            logger.warn("Ignoring release of a connection that is not borrowed from the pool",
+                    new IllegalStateException("Released here"));
+            return;
+        }
+        borrow.pool.giveBack(conn);
+    }
+
+    private static void checkExternalWrites(Connection conn) throws SQLException {
+        long version;
+        // Only changes when another connection commits, never for this connection's own commits
+        try (ResultSet rs = prepare(conn, "PRAGMA data_version").executeQuery()) {
+            rs.next();
+            version = rs.getLong(1);
+        }
+        // A replaced writer has its own numbering, so anything may have happened in between
+        boolean changed = conn == versionedWriter ? version != writerDataVersion : versionedWriter != null;
+        versionedWriter = conn;
+        writerDataVersion = version;
+        if (changed) {
+            logger.info("Database was changed by another connection; dropping in-memory copies");
+            externalWriteListeners.forEach(Runnable::run);
+        }
+    }
+
+    private static void pollExternalWrites() {
+        // When the writer is busy its borrower has just checked, or the next one will
+        Connection conn = null;
         try {
-            Connection conn = connectionPool.poll();
-            if (conn == null || conn.isClosed()) {
-                conn = createConnection();
+            conn = writePool.tryBorrow();
+            if (conn != null) {
+                checkExternalWrites(conn);
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Error checking for external database writes", e);
+        } finally {
+            if (conn != null) {
+                releaseConnection(conn);
+            }
+        }
+    }
+
+    private static void detectLeaks() {
+        long now = System.nanoTime();
+        long threshold = TimeUnit.MILLISECONDS.toNanos(LEAK_THRESHOLD_MILLIS);
+        for (Borrow borrow : borrowed.values()) {
+            if (!borrow.reported && now - borrow.borrowedAt > threshold) {
+                borrow.reported = true;
+                leaksDetected.incrementAndGet();
+                long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - borrow.borrowedAt);
+                if (borrow.stackTrace != null) {
+                    logger.warn("Possible connection leak: {} connection borrowed by thread {} {} ms ago was not released",
+                            borrow.pool.name, borrow.threadName, heldMillis, borrow.stackTrace);
+                } else {
+                    logger.warn("Possible connection leak: {} connection borrowed by thread {} {} ms ago was not released"
+                            + " (run with -Dtictactoe.db.leakTraces=true to see where)",
+                            borrow.pool.name, borrow.threadName, heldMillis);
+                }
+            }
+        }
+    }
+
+    public static PoolStats getWritePoolStats() {
+        return writePool.stats();
+    }
+
+    public static PoolStats getReadPoolStats() {
+        return readPool.stats();
+    }
+
+    public static void closeAllConnections() {
+        readPool.closeIdle();
+        writePool.closeIdle();
+        if (!borrowed.isEmpty()) {
+            logger.warn("{} database connections are still borrowed at shutdown", borrowed.size());
+        }
+        logger.info("All database connections closed. Writer: {}. Readers: {}", getWritePoolStats(), getReadPoolStats());
+    }
+
+    private static void closeQuietly(Connection conn) {
+        StatementCache cache = statementCaches.remove(conn);
+        if (cache != null) {
+            cache.close();
+        }
+        try {
+            if (!conn.isClosed()) {
+                conn.close();
             }
-            return conn;
         } catch (SQLException e) {
-            logger.error("Error getting connection from pool", e);
-            throw e;
+            logger.error("Error closing connection", e);
         }
     }
 
-    public static void releaseConnection(Connection conn) {
-        if (conn != null) {
+    private static final class ConnectionPool {
+        final String name;
+        final int maxSize;
+        final SQLiteConfig config;
+        // Permits bound the number of connections handed out at once
+        final Semaphore permits;
+        final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+        final AtomicLong acquired = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong validationFailures = new AtomicLong();
+        final AtomicLong statementHits = new AtomicLong();
+        final AtomicLong statementMisses = new AtomicLong();
+
+        ConnectionPool(String name, int maxSize, boolean readOnly) {
+            this.name = name;
+            this.maxSize = maxSize;
+            this.permits = new Semaphore(maxSize, true);
+            this.config = new SQLiteConfig();
+            config.setReadOnly(readOnly);
+            if (!readOnly) {
+                // Persistent in the database file, so setting it on the writer is enough
+                config.setJournalMode(JOURNAL_MODE);
+            }
+            // Syncing only at checkpoints is still crash-safe in WAL mode
+            config.setSynchronous(JOURNAL_MODE == SQLiteConfig.JournalMode.WAL
+                    ? SQLiteConfig.SynchronousMode.NORMAL : SQLiteConfig.SynchronousMode.FULL);
+            config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+            config.setCacheSize(CACHE_SIZE);
+            config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(MMAP_SIZE));
+            config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        }
+
+        Connection createConnection() throws SQLException {
+            Connection conn = config.createConnection(DB_URL);
+            statementCaches.put(conn, new StatementCache(this));
+            created.incrementAndGet();
+            return conn;
+        }
+
+        Connection borrow() throws SQLException {
+            long start = System.nanoTime();
             try {
-                if (!conn.isClosed() && connectionPool.size() < POOL_SIZE) {
-                    connectionPool.offer(conn);
+                if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    timeouts.incrementAndGet();
+                    logger.error("Timed out after {} ms waiting for a {} connection ({} of {} in use)",
+                            ACQUIRE_TIMEOUT_MILLIS, name, maxSize - permits.availablePermits(), maxSize);
+                    throw new SQLTimeoutException("Timed out after " + ACQUIRE_TIMEOUT_MILLIS
+                            + " ms waiting for a " + name + " connection");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            long waited = System.nanoTime() - start;
+            acquired.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return checkOut();
+        }
+
+        /**
+         * Borrows a connection only if one is free right now, without
+         * counting towards the wait statistics; returns null otherwise.
+         */
+        Connection tryBorrow() throws SQLException {
+            return permits.tryAcquire() ? checkOut() : null;
+        }
+
+        // Called holding a permit, which is given back if no connection can be had
+        private Connection checkOut() throws SQLException {
+            try {
+                Connection conn = takeValidIdleConnection();
+                if (conn == null) {
+                    conn = createConnection();
+                }
+                borrowed.put(conn, new Borrow(this));
+                return conn;
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                logger.error("Error getting connection from pool", e);
+                throw e;
+            }
+        }
+
+        private Connection takeValidIdleConnection() {
+            Connection conn;
+            while ((conn = idle.pollFirst()) != null) {
+                try {
+                    if (conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                        return conn;
+                    }
+                } catch (SQLException e) {
+                    logger.debug("Connection validation failed", e);
+                }
+                validationFailures.incrementAndGet();
+                logger.warn("Discarding invalid pooled {} connection", name);
+                closeQuietly(conn);
+            }
+            return null;
+        }
+
+        void giveBack(Connection conn) {
+            try {
+                if (conn.isClosed()) {
+                    logger.warn("A pooled {} connection was closed by its borrower; it will be replaced", name);
+                    closeQuietly(conn);
                 } else {
-                    conn.close();
+                    if (!conn.getAutoCommit()) {
+                        conn.rollback();
+                        conn.setAutoCommit(true);
+                    }
+                    idle.push(conn);
                 }
             } catch (SQLException e) {
                 logger.error("Error releasing connection", e);
+                closeQuietly(conn);
+            } finally {
+                permits.release();
             }
         }
+
+        void closeIdle() {
+            Connection conn;
+            while ((conn = idle.pollFirst()) != null) {
+                closeQuietly(conn);
+            }
+        }
+
+        PoolStats stats() {
+            int active = maxSize - permits.availablePermits();
+            return new PoolStats(active, idle.size(), maxSize, acquired.get(), totalWaitNanos.get(),
+                    maxWaitNanos.get(), timeouts.get(), created.get(), validationFailures.get(), leaksDetected.get(),
+                    statementHits.get(), statementMisses.get());
+        }
     }
 
-    public static void closeAllConnections() {
-        Connection conn;
-        while ((conn = connectionPool.poll()) != null) {
+    /**
+     * Prepared statements of one connection, in least recently used order.
+     * Only the thread currently borrowing the connection touches it.
+     */
+    private static final class StatementCache {
+        final ConnectionPool pool;
+        final LinkedHashMap<String, PreparedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() <= STATEMENT_CACHE_SIZE) {
+                            return false;
+                        }
+                        closeStatement(eldest.getValue());
+                        return true;
+                    }
+                };
+
+        StatementCache(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt != null && !stmt.isClosed()) {
+                pool.statementHits.incrementAndGet();
+                return stmt;
+            }
+            pool.statementMisses.incrementAndGet();
+            stmt = conn.prepareStatement(sql);
+            statements.put(sql, stmt);
+            return stmt;
+        }
+
+        void close() {
+            statements.values().forEach(StatementCache::closeStatement);
+            statements.clear();
+        }
+
+        static void closeStatement(PreparedStatement stmt) {
             try {
-                if (!conn.isClosed()) {
-                    conn.close();
-                }
+                stmt.close();
             } catch (SQLException e) {
-                logger.error("Error closing connection", e);
+                logger.debug("Error closing cached statement", e);
             }
         }
-        logger.info("All database connections closed");
     }
-} 
\ No newline at end of file
+
+    private static final class Borrow {
+        final ConnectionPool pool;
+        final long borrowedAt = System.nanoTime();
+        final String threadName = Thread.currentThread().getName();
+        // Captured up front, when enabled, so a leak report can show who borrowed the connection
+        final Exception stackTrace = LEAK_TRACES ? new Exception("Connection borrowed here") : null;
+        volatile boolean reported;
+
+        Borrow(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of a pool's counters. The leak count covers
+     * both pools.
+     */
+    public static class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final long acquired;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeouts;
+        private final long created;
+        private final long validationFailures;
+        private final long leaksDetected;
+        private final long statementHits;
+        private final long statementMisses;
+
+        PoolStats(int active, int idle, int maxSize, long acquired, long totalWaitNanos, long maxWaitNanos,
+                  long timeouts, long created, long validationFailures, long leaksDetected,
+                  long statementHits, long statementMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.acquired = acquired;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.validationFailures = validationFailures;
+            this.leaksDetected = leaksDetected;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getAcquired() {
+            return acquired;
+        }
+
+        public double getMeanWaitMillis() {
+            return acquired > 0 ? totalWaitNanos / 1_000_000.0 / acquired : 0.0;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getLeaksDetected() {
+            return leaksDetected;
+        }
+
+        public long getStatementHits() {
+            return statementHits;
+        }
+
+        public long getStatementMisses() {
+            return statementMisses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d max=%d acquired=%d wait(mean=%.3f ms, max=%.1f ms) "
+                            + "timeouts=%d created=%d invalid=%d leaks=%d statements(hits=%d, misses=%d)",
+                    active, idle, maxSize, acquired, getMeanWaitMillis(), getMaxWaitMillis(),
+                    timeouts, created, validationFailures, leaksDetected, statementHits, statementMisses);
+        }
+    }
+}
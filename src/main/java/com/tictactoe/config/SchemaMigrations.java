@@ -0,0 +1,194 @@
+package com.tictactoe.config;
+
+import com.tictactoe.util.MoveCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.Function;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Versioned schema changes, applied in order when the pool starts. The
+ * {@code schema_version} table records every migration that has run, so
+ * each one is applied exactly once per database file, in its own
+ * transaction.
+ *
+ * <p>Migrations are append-only: a released migration is never edited,
+ * later changes get a new version.</p>
+ */
+final class SchemaMigrations {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private static final String CREATE_VERSION_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS schema_version (
+            version INTEGER PRIMARY KEY,
+            description TEXT NOT NULL,
+            applied_at TIMESTAMP NOT NULL
+        )
+    """;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            // IF NOT EXISTS keeps databases created before migrations existed
+            new Migration(1, "Create players and games tables",
+                    """
+                    CREATE TABLE IF NOT EXISTS players (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL UNIQUE,
+                        wins INTEGER DEFAULT 0,
+                        losses INTEGER DEFAULT 0,
+                        draws INTEGER DEFAULT 0,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS games (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        player1_id INTEGER NOT NULL,
+                        player2_id INTEGER NOT NULL,
+                        winner_id INTEGER,
+                        is_draw BOOLEAN NOT NULL DEFAULT FALSE,
+                        game_mode TEXT NOT NULL DEFAULT 'CLASSIC',
+                        moves TEXT NOT NULL,
+                        played_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (player1_id) REFERENCES players (id),
+                        FOREIGN KEY (player2_id) REFERENCES players (id),
+                        FOREIGN KEY (winner_id) REFERENCES players (id)
+                    )
+                    """),
+            // findRecentGames and findGamesByPlayer walk these in played_at order
+            // instead of sorting the whole table; findTopPlayers reads the first
+            // entries of the wins index
+            new Migration(2, "Index games by time and player, players by wins",
+                    "CREATE INDEX IF NOT EXISTS idx_games_played_at ON games (played_at, id)",
+                    "CREATE INDEX IF NOT EXISTS idx_games_player1 ON games (player1_id, played_at)",
+                    "CREATE INDEX IF NOT EXISTS idx_games_player2 ON games (player2_id, played_at)",
+                    "CREATE INDEX IF NOT EXISTS idx_players_wins ON players (wins)",
+                    "ANALYZE"),
+            // Leaderboard pages seek to (wins, id) and read forward in the same order
+            new Migration(3, "Index players by wins and id for keyset paging",
+                    "DROP INDEX IF EXISTS idx_players_wins",
+                    "CREATE INDEX IF NOT EXISTS idx_players_wins_id ON players (wins DESC, id)",
+                    "ANALYZE"),
+            // Existing players start at the initial rating; RatingRecalculator replays their games
+            new Migration(4, "Add Elo rating to players",
+                    "ALTER TABLE players ADD COLUMN rating REAL NOT NULL DEFAULT 1500"),
+            // Moves in the row,col,KIND notation become MoveCodec BLOBs; other text, e.g.
+            // from before the notation, is left as is and still read back. setTimestamp
+            // already stored played_at as epoch millis, so only CURRENT_TIMESTAMP defaults,
+            // which are UTC text, need converting. The declared column types stay: SQLite
+            // keeps BLOBs and integers as they are under TEXT and TIMESTAMP affinity
+            new Migration(5, "Store moves packed and played_at as epoch millis",
+                    "UPDATE games SET moves = COALESCE(encode_moves(moves), moves) WHERE typeof(moves) = 'text'",
+                    """
+                    UPDATE games SET played_at = CAST(ROUND((julianday(played_at) - 2440587.5) * 86400000) AS INTEGER)
+                    WHERE typeof(played_at) = 'text' AND julianday(played_at) IS NOT NULL
+                    """)
+    );
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Brings the database up to the latest version. Must be called on the
+     * read-write connection before it is shared.
+     */
+    static void migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE_SQL);
+        }
+        int current = currentVersion(conn);
+        if (current < latestVersion()) {
+            registerFunctions(conn);
+        }
+        int applied = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version > current) {
+                apply(conn, migration);
+                applied++;
+            }
+        }
+        if (applied == 0) {
+            logger.info("Database schema is up to date at version {}", current);
+        } else {
+            logger.info("Migrated database schema from version {} to {}", current, latestVersion());
+        }
+    }
+
+    static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * SQL functions migrations can call for conversions SQLite cannot do
+     * itself. They stay registered on the connection, unused afterwards.
+     */
+    private static void registerFunctions(Connection conn) throws SQLException {
+        // encode_moves(text): the MoveCodec form, or NULL if not in the move notation
+        Function.create(conn, "encode_moves", new Function() {
+            @Override
+            protected void xFunc() throws SQLException {
+                String text = value_text(0);
+                byte[] encoded = text != null ? MoveCodec.encode(text) : null;
+                if (encoded != null) {
+                    result(encoded);
+                } else {
+                    result();
+                }
+            }
+        }, 1, Function.FLAG_DETERMINISTIC);
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements) {
+                    stmt.execute(sql);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            logger.info("Applied schema migration {} ({}) in {} ms", migration.version, migration.description,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            conn.rollback();
+            logger.error("Schema migration {} ({}) failed", migration.version, migration.description, e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.tictactoe.controller;
 
 import com.tictactoe.App;
+import com.tictactoe.ai.AlphaBetaSearch;
+import com.tictactoe.ai.MonteCarloTreeSearch;
+import com.tictactoe.ai.PerfectPlayTable;
+import com.tictactoe.model.entity.Board;
 import com.tictactoe.model.entity.PlayerEntity;
 import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.model.enums.Player;
 import com.tictactoe.service.GameService;
 import com.tictactoe.repository.GameRepository;
+import com.tictactoe.repository.GameResultWriter;
 import com.tictactoe.repository.PlayerRepository;
 import javafx.animation.ScaleTransition;
 import javafx.fxml.FXML;
@@ -28,9 +34,25 @@ import javafx.animation.Timeline;
 import javafx.scene.shape.Shape;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GameController {
     private static final Logger logger = LoggerFactory.getLogger(GameController.class);
+    // Computer moves are searched here so the JavaFX thread never blocks
+    private static final ExecutorService AI_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Shared across views so its worker threads are only started once
+    private static final MonteCarloTreeSearch LARGE_BOARD_SEARCH = new MonteCarloTreeSearch();
+    private static final int LARGE_BOARD_CELLS = 100;
+    private static final String COMPUTER_NAME = "Computer";
+    private final AlphaBetaSearch aiSearch = new AlphaBetaSearch();
+    private boolean aiThinking;
+    private int gameGeneration;
     private GameService gameService;
     private GameMode gameMode;
     private Timeline backgroundAnimator;
@@ -56,7 +78,7 @@ public class GameController {
     @FXML
     public void initialize() {
         logger.info("Initializing game controller");
-        gameService = new GameService(new GameRepository(), new PlayerRepository());
+        gameService = new GameService(new GameRepository(), new PlayerRepository(), GameResultWriter.getDefault());
         initializeBackground();
         showGameModeDialog();
     }
@@ -82,7 +104,8 @@ public class GameController {
         ButtonType cancelButton = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
         dialog.getDialogPane().getButtonTypes().setAll(playButton, cancelButton);
 
-        HBox content = new HBox(20);
+        TilePane content = new TilePane(20, 20);
+        content.setPrefColumns(2);
         content.setPadding(new Insets(20));
         content.setAlignment(Pos.CENTER);
 
@@ -106,7 +129,37 @@ public class GameController {
             selectedMode
         );
 
-        content.getChildren().addAll(classicCard, endlessCard);
+        // Larger m,n,k boards
+        VBox fourInARowCard = createGameModeCard(
+            GameMode.FOUR_IN_A_ROW.getDisplayName(),
+            "7x7 board\nFirst to get 4 in a row wins!",
+            GameMode.FOUR_IN_A_ROW,
+            selectedMode
+        );
+
+        VBox gomokuCard = createGameModeCard(
+            GameMode.GOMOKU.getDisplayName(),
+            "15x15 board\nFirst to get 5 in a row wins!",
+            GameMode.GOMOKU,
+            selectedMode
+        );
+
+        VBox vsComputerCard = createGameModeCard(
+            GameMode.VS_AI.getDisplayName(),
+            "Classic rules against the computer.\nCan you force a draw?",
+            GameMode.VS_AI,
+            selectedMode
+        );
+
+        VBox gomokuVsComputerCard = createGameModeCard(
+            GameMode.GOMOKU_VS_AI.getDisplayName(),
+            "15x15 board against the computer.\nFirst to get 5 in a row wins!",
+            GameMode.GOMOKU_VS_AI,
+            selectedMode
+        );
+
+        content.getChildren().addAll(classicCard, endlessCard, fourInARowCard, gomokuCard,
+            vsComputerCard, gomokuVsComputerCard);
 
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
@@ -122,6 +175,7 @@ public class GameController {
         result.ifPresentOrElse(mode -> {
             gameMode = mode; // Set the local gameMode field
             gameService.setGameMode(mode);
+            buildBoard();
             updateGameModeLabel();
             showPlayerDialog();
         }, () -> App.loadView("/com/tictactoe/fxml/menu.fxml"));
@@ -142,8 +196,8 @@ public class GameController {
         // Make the entire card clickable
         card.setOnMouseClicked(event -> {
             // Remove selection from all cards in the parent container
-            if (card.getParent() instanceof HBox) {
-                ((HBox) card.getParent()).getChildren().forEach(node -> {
+            if (card.getParent() instanceof Pane) {
+                ((Pane) card.getParent()).getChildren().forEach(node -> {
                     if (node instanceof VBox) {
                         node.getStyleClass().remove("selected");
                     }
@@ -183,10 +237,35 @@ public class GameController {
         return card;
     }
 
+    private void buildBoard() {
+        int rows = gameService.getRows();
+        int cols = gameService.getCols();
+        boolean compact = rows > 3 || cols > 3;
+        gameBoard.getChildren().clear();
+        gameBoard.setHgap(compact ? 2 : 10);
+        gameBoard.setVgap(compact ? 2 : 10);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                Button cell = new Button();
+                cell.getStyleClass().add("game-cell");
+                if (compact) {
+                    cell.getStyleClass().add("compact");
+                }
+                cell.setOnAction(this::handleMove);
+                gameBoard.add(cell, col, row);
+            }
+        }
+    }
+
     @FXML
     private void handleMove(javafx.event.ActionEvent event) {
-        Button clickedButton = (Button) event.getSource();
-        
+        if (aiThinking || (gameMode.isVsComputer() && currentPlayer == player2)) {
+            return; // Wait for the computer's move
+        }
+        playMove((Button) event.getSource());
+    }
+
+    private void playMove(Button clickedButton) {
         if (clickedButton.getText().isEmpty()) {
             String symbol = currentPlayer == player1 ? "X" : "O";
             
@@ -212,17 +291,19 @@ public class GameController {
                 st.play();
 
                 if (isGameComplete) {
-                    if (gameMode == GameMode.ENDLESS && !gameService.hasWinner()) {
-                        // In endless mode, only clear tiles if there's no winner
-                        clearRandomTiles(3);
+                    if (gameMode.isEndless() && !gameService.hasWinner()) {
+                        // The service already cleared tiles on the full board, show which
+                        animateClearedTiles(gameService.getLastClearedCells());
                         switchPlayer();
                         updateGameStatus();
+                        requestComputerMove();
                     } else {
                         handleGameOver();
                     }
                 } else {
                     switchPlayer();
                     updateGameStatus();
+                    requestComputerMove();
                 }
             } catch (RuntimeException e) {
                 logger.error("Error processing move", e);
@@ -231,37 +312,73 @@ public class GameController {
         }
     }
 
-    private void clearRandomTiles(int count) {
-        List<Button> occupiedButtons = new ArrayList<>();
-        gameBoard.getChildren().stream()
-            .filter(node -> node instanceof Button)
-            .map(node -> (Button) node)
-            .filter(button -> !button.getText().isEmpty())
-            .forEach(occupiedButtons::add);
+    private void requestComputerMove() {
+        if (!gameMode.isVsComputer() || currentPlayer != player2 || gameService.isGameOver()) {
+            return;
+        }
+        aiThinking = true;
+        int generation = gameGeneration;
+        Board snapshot = gameService.getBoardSnapshot();
+        Player side = gameService.getCurrentPlayer();
+        gameStatus.setText(player2.getName() + " is thinking...");
+
+        CompletableFuture.supplyAsync(() -> chooseComputerMove(snapshot, side), AI_EXECUTOR)
+            .whenComplete((move, error) -> Platform.runLater(() -> applyComputerMove(generation, move, error)));
+    }
+
+    private int chooseComputerMove(Board snapshot, Player side) {
+        // Classic boards are answered from the precomputed table without searching
+        if (PerfectPlayTable.supports(snapshot)) {
+            int move = PerfectPlayTable.getDefault()
+                .map(table -> table.bestMove(snapshot, side))
+                .orElse(-1);
+            if (move >= 0) {
+                return move;
+            }
+        }
+        // Too wide for alpha-beta to see far, so sample it on every core instead
+        if (snapshot.getSize() > LARGE_BOARD_CELLS) {
+            return LARGE_BOARD_SEARCH.findBestMove(snapshot, side).getMove();
+        }
+        return aiSearch.findBestMove(snapshot, side).getMove();
+    }
+
+    private void applyComputerMove(int generation, Integer move, Throwable error) {
+        if (generation != gameGeneration) {
+            return; // The game was restarted while searching
+        }
+        aiThinking = false;
+        if (error != null || move < 0) {
+            logger.error("Computer failed to find a move", error);
+            showError("Error", "Computer could not make a move");
+            return;
+        }
+        int cols = gameService.getCols();
+        Button button = getButtonAt(move / cols, move % cols);
+        if (button != null) {
+            playMove(button);
+        }
+    }
+
+    private void animateClearedTiles(int[][] clearedCells) {
+        for (int[] cell : clearedCells) {
+            Button button = getButtonAt(cell[0], cell[1]);
+            if (button == null) {
+                continue;
+            }
 
-        // Shuffle the list and take first 'count' buttons to clear
-        Collections.shuffle(occupiedButtons, random);
-        
-        // Animate clearing of tiles
-        for (int i = 0; i < Math.min(count, occupiedButtons.size()); i++) {
-            Button button = occupiedButtons.get(i);
-            
             // Fade out animation
             FadeTransition fadeOut = new FadeTransition(Duration.millis(300), button);
             fadeOut.setFromValue(1.0);
             fadeOut.setToValue(0.0);
-            
-            // Clear the tile after fade out
+
+            // The model is already cleared, only reset the view after the fade
             fadeOut.setOnFinished(e -> {
                 button.setText("");
                 button.setOpacity(1.0); // Reset opacity
                 button.getStyleClass().removeAll("x", "o", "winning-move");
-                
-                int row = GridPane.getRowIndex(button);
-                int col = GridPane.getColumnIndex(button);
-                gameService.clearTile(row, col);
             });
-            
+
             fadeOut.play();
         }
     }
@@ -313,6 +430,8 @@ public class GameController {
             });
         
         gameService.resetGame();
+        gameGeneration++;
+        aiThinking = false;
         currentPlayer = player1;
         updateGameStatus();
     }
@@ -342,9 +461,8 @@ public class GameController {
     private void showPlayerDialog() {
         Dialog<String> dialog = new Dialog<>();
         dialog.setTitle("Player Names");
-        String modeName = gameService.getGameMode().name();
-        dialog.setHeaderText("Enter player names for " + 
-            modeName.charAt(0) + modeName.substring(1).toLowerCase() + " Mode");
+        dialog.setHeaderText("Enter player names for " +
+            gameService.getGameMode().getDisplayName() + " Mode");
 
         ButtonType confirmButtonType = new ButtonType("Start Game", ButtonBar.ButtonData.OK_DONE);
         dialog.getDialogPane().getButtonTypes().addAll(confirmButtonType, ButtonType.CANCEL);
@@ -361,6 +479,11 @@ public class GameController {
         grid.add(new Label("Player 2 (O):"), 0, 1);
         grid.add(player2Field, 1, 1);
 
+        if (gameMode.isVsComputer()) {
+            player2Field.setText(COMPUTER_NAME);
+            player2Field.setDisable(true);
+        }
+
         dialog.getDialogPane().setContent(grid);
         dialog.getDialogPane().getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
 
@@ -425,71 +548,14 @@ public class GameController {
 
     private void highlightWinningCombination() {
         // Get winning combination from game service
-        List<Button> winningButtons = new ArrayList<>();
-        
-        // Check rows
-        for (int i = 0; i < 3; i++) {
-            if (!gameService.getCell(i, 0).isEmpty() && 
-                gameService.getCell(i, 0).equals(gameService.getCell(i, 1)) && 
-                gameService.getCell(i, 1).equals(gameService.getCell(i, 2))) {
-                for (int j = 0; j < 3; j++) {
-                    Button btn = getButtonAt(i, j);
-                    if (btn != null) {
-                        winningButtons.add(btn);
-                    }
-                }
-                break;
-            }
-        }
-
-        // Check columns
-        if (winningButtons.isEmpty()) {
-            for (int j = 0; j < 3; j++) {
-                if (!gameService.getCell(0, j).isEmpty() && 
-                    gameService.getCell(0, j).equals(gameService.getCell(1, j)) && 
-                    gameService.getCell(1, j).equals(gameService.getCell(2, j))) {
-                    for (int i = 0; i < 3; i++) {
-                        Button btn = getButtonAt(i, j);
-                        if (btn != null) {
-                            winningButtons.add(btn);
-                        }
-                    }
-                    break;
-                }
-            }
-        }
-
-        // Check diagonals
-        if (winningButtons.isEmpty()) {
-            if (!gameService.getCell(0, 0).isEmpty() && 
-                gameService.getCell(0, 0).equals(gameService.getCell(1, 1)) && 
-                gameService.getCell(1, 1).equals(gameService.getCell(2, 2))) {
-                addButtonIfNotNull(winningButtons, getButtonAt(0, 0));
-                addButtonIfNotNull(winningButtons, getButtonAt(1, 1));
-                addButtonIfNotNull(winningButtons, getButtonAt(2, 2));
-            } else if (!gameService.getCell(0, 2).isEmpty() && 
-                      gameService.getCell(0, 2).equals(gameService.getCell(1, 1)) && 
-                      gameService.getCell(1, 1).equals(gameService.getCell(2, 0))) {
-                addButtonIfNotNull(winningButtons, getButtonAt(0, 2));
-                addButtonIfNotNull(winningButtons, getButtonAt(1, 1));
-                addButtonIfNotNull(winningButtons, getButtonAt(2, 0));
-            }
-        }
-
-        // Apply winning animation to the buttons only if we found a winning combination
-        if (!winningButtons.isEmpty()) {
-            for (Button button : winningButtons) {
+        for (int[] cell : gameService.getWinningCells()) {
+            Button button = getButtonAt(cell[0], cell[1]);
+            if (button != null) {
                 button.getStyleClass().add("winning-move");
             }
         }
     }
 
-    private void addButtonIfNotNull(List<Button> buttons, Button button) {
-        if (button != null) {
-            buttons.add(button);
-        }
-    }
-
     private Button getButtonAt(int row, int col) {
         for (javafx.scene.Node node : gameBoard.getChildren()) {
             if (node instanceof Button && 
@@ -502,8 +568,6 @@ public class GameController {
     }
 
     private void updateGameModeLabel() {
-        String modeName = gameService.getGameMode().name();
-        String displayText = modeName.charAt(0) + modeName.substring(1).toLowerCase() + " Mode";
-        gameModeLabel.setText(displayText);
+        gameModeLabel.setText(gameService.getGameMode().getDisplayName() + " Mode");
     }
 } 
\ No newline at end of file
@@ -2,21 +2,50 @@ package com.tictactoe.controller;
 
 import com.tictactoe.App;
 import com.tictactoe.model.entity.PlayerEntity;
-import com.tictactoe.repository.PlayerRepository;
+import com.tictactoe.repository.LeaderboardIndex;
+import com.tictactoe.repository.LeaderboardIndex.SortOrder;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.collections.FXCollections;
+import javafx.collections.ObservableListBase;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleLongProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Shows the whole leaderboard in one scrollable table without holding it in
+ * memory. The table's rows are a view of {@link LeaderboardIndex} by
+ * position: pages are read in the background when their rows are laid out,
+ * and only the most recently shown pages are kept, so memory stays the same
+ * however many players there are and however far the user scrolls.
+ */
 public class LeaderboardController {
     private static final Logger logger = LoggerFactory.getLogger(LeaderboardController.class);
-    private final PlayerRepository playerRepository;
+    // Pages are read here so the JavaFX thread never waits for the index to load
+    private static final ExecutorService PAGE_LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-pages");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int PAGE_SIZE = 100;
+    // A few screens' worth around the viewport; older pages are dropped and read again if needed
+    private static final int MAX_CACHED_PAGES = 8;
+    private SortOrder sortOrder = SortOrder.WINS;
+    // Bumped on refresh so that results requested before it are dropped
+    private int generation;
 
     @FXML
     private TableView<PlayerEntity> leaderboardTable;
@@ -30,10 +59,14 @@ public class LeaderboardController {
     private TableColumn<PlayerEntity, Integer> drawsColumn;
     @FXML
     private TableColumn<PlayerEntity, Double> winRateColumn;
-
-    public LeaderboardController() {
-        this.playerRepository = new PlayerRepository();
-    }
+    @FXML
+    private TableColumn<PlayerEntity, Long> ratingColumn;
+    @FXML
+    private Button sortByWinsButton;
+    @FXML
+    private Button sortByWinRateButton;
+    @FXML
+    private Button sortByRatingButton;
 
     @FXML
     public void initialize() {
@@ -46,24 +79,65 @@ public class LeaderboardController {
         winsColumn.setCellValueFactory(new PropertyValueFactory<>("wins"));
         lossesColumn.setCellValueFactory(new PropertyValueFactory<>("losses"));
         drawsColumn.setCellValueFactory(new PropertyValueFactory<>("draws"));
-        winRateColumn.setCellValueFactory(cellData -> {
-            PlayerEntity player = cellData.getValue();
-            int totalGames = player.getWins() + player.getLosses() + player.getDraws();
-            double winRate = totalGames > 0 ? (double) player.getWins() / totalGames * 100 : 0.0;
-            return new SimpleDoubleProperty(winRate).asObject();
-        });
+        winRateColumn.setCellValueFactory(cellData ->
+                new SimpleDoubleProperty(cellData.getValue().getWinRate() * 100).asObject());
+        ratingColumn.setCellValueFactory(cellData ->
+                new SimpleLongProperty(Math.round(cellData.getValue().getRating())).asObject());
     }
 
     private void loadLeaderboard() {
-        try {
-            List<PlayerEntity> topPlayers = playerRepository.findTopPlayers(10);
-            leaderboardTable.setItems(FXCollections.observableArrayList(topPlayers));
-            logger.info("Leaderboard loaded successfully with {} players", topPlayers.size());
-        } catch (Exception e) {
-            logger.error("Error loading leaderboard", e);
+        int requestGeneration = ++generation;
+        SortOrder order = sortOrder;
+        updateSortButtons();
+        // The first call loads the index, which can take a moment on a large database
+        CompletableFuture.supplyAsync(() -> LeaderboardIndex.getDefault().size(), PAGE_LOADER)
+            .whenComplete((size, error) -> Platform.runLater(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                if (error != null) {
+                    logger.error("Error loading leaderboard", error);
+                    return;
+                }
+                leaderboardTable.setItems(new LeaderboardRows(order, size, requestGeneration));
+                leaderboardTable.scrollTo(0);
+                logger.info("Leaderboard loaded: {} players by {}", size, order);
+            }));
+    }
+
+    private void updateSortButtons() {
+        setSelected(sortByWinsButton, sortOrder == SortOrder.WINS);
+        setSelected(sortByWinRateButton, sortOrder == SortOrder.WIN_RATE);
+        setSelected(sortByRatingButton, sortOrder == SortOrder.RATING);
+    }
+
+    private static void setSelected(Button button, boolean selected) {
+        button.getStyleClass().removeAll("primary-button", "menu-button");
+        button.getStyleClass().add(selected ? "primary-button" : "menu-button");
+    }
+
+    private void sortBy(SortOrder order) {
+        if (order != sortOrder) {
+            sortOrder = order;
+            loadLeaderboard();
         }
     }
 
+    @FXML
+    private void handleSortByWins() {
+        sortBy(SortOrder.WINS);
+    }
+
+    @FXML
+    private void handleSortByWinRate() {
+        sortBy(SortOrder.WIN_RATE);
+    }
+
+    @FXML
+    private void handleSortByRating() {
+        sortBy(SortOrder.RATING);
+    }
+
     @FXML
     private void handleRefresh() {
         loadLeaderboard();
@@ -78,4 +152,80 @@ public class LeaderboardController {
             logger.error("Error navigating back", e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * The players in one sort order, by position, as of the last refresh.
+     * A row whose page is not loaded yet reads as null, which the table
+     * shows as an empty row, and its page is requested; when the page
+     * arrives its rows are reported as replaced so the table redraws them.
+     * Only accessed on the JavaFX thread.
+     */
+    private final class LeaderboardRows extends ObservableListBase<PlayerEntity> {
+        private final SortOrder order;
+        private final int size;
+        private final int rowsGeneration;
+        // In access order, so the least recently shown page is dropped first
+        private final Map<Integer, List<PlayerEntity>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<PlayerEntity>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+        private final Set<Integer> loading = new HashSet<>();
+
+        LeaderboardRows(SortOrder order, int size, int rowsGeneration) {
+            this.order = order;
+            this.size = size;
+            this.rowsGeneration = rowsGeneration;
+        }
+
+        @Override
+        public PlayerEntity get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+            }
+            int page = index / PAGE_SIZE;
+            List<PlayerEntity> players = pages.get(page);
+            if (players == null) {
+                loadPage(page);
+                return null;
+            }
+            int offset = index % PAGE_SIZE;
+            return offset < players.size() ? players.get(offset) : null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private void loadPage(int page) {
+            if (!loading.add(page)) {
+                return;
+            }
+            CompletableFuture.supplyAsync(
+                    () -> LeaderboardIndex.getDefault().range(order, page * PAGE_SIZE, PAGE_SIZE), PAGE_LOADER)
+                .whenComplete((players, error) -> Platform.runLater(() -> applyPage(page, players, error)));
+        }
+
+        private void applyPage(int page, List<PlayerEntity> players, Throwable error) {
+            loading.remove(page);
+            if (rowsGeneration != generation) {
+                return;
+            }
+            if (error != null) {
+                // Left retryable: the next layout of these rows requests the page again
+                logger.error("Error loading leaderboard page {}", page, error);
+                return;
+            }
+            pages.put(page, players);
+            int from = page * PAGE_SIZE;
+            int to = Math.min(size, from + PAGE_SIZE);
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextSet(i, null);
+            }
+            endChange();
+        }
+    }
+}
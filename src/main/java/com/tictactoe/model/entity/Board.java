@@ -0,0 +1,254 @@
+package com.tictactoe.model.entity;
+
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.model.enums.Player;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An m x n board with a k-in-a-row rule, stored as one bitboard per player.
+ * Cell (row, col) is bit {@code row * cols + col}. Win detection only walks
+ * the four lines through the last move, so a move costs O(k) regardless of
+ * the board size. A Zobrist hash of the position is kept up to date on
+ * every place and clear.
+ */
+public class Board {
+    // Row and column steps for horizontal, vertical, diagonal and anti-diagonal lines
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+    // Fixed seed so equal positions hash equally across board instances
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+    // Key tables are never written after creation, so boards of one geometry share them
+    private static final Map<Long, long[]> ZOBRIST_KEYS = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final long[] xBits;
+    private final long[] oBits;
+    // Zobrist keys, X keys at [index] and O keys at [size + index]
+    private final long[] zobristKeys;
+    private int filledCount;
+    private long hash;
+
+    public Board(int rows, int cols, int winLength) {
+        if (rows <= 0 || cols <= 0 || winLength <= 0 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException(
+                    "Invalid board " + rows + "x" + cols + " with " + winLength + " in a row");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        int words = (rows * cols + 63) >>> 6;
+        this.xBits = new long[words];
+        this.oBits = new long[words];
+        this.zobristKeys = ZOBRIST_KEYS.computeIfAbsent(((long) rows << 32) | cols, key -> zobristKeys(rows * cols));
+    }
+
+    private static long[] zobristKeys(int size) {
+        long[] keys = new long[2 * size];
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    private Board(Board other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.winLength = other.winLength;
+        this.xBits = other.xBits.clone();
+        this.oBits = other.oBits.clone();
+        this.zobristKeys = other.zobristKeys;
+        this.filledCount = other.filledCount;
+        this.hash = other.hash;
+    }
+
+    public Board(GameMode mode) {
+        this(mode.getRows(), mode.getCols(), mode.getWinLength());
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getSize() {
+        return rows * cols;
+    }
+
+    /**
+     * Returns an independent copy of this board, e.g. for a search to play on.
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    public boolean matches(GameMode mode) {
+        return rows == mode.getRows() && cols == mode.getCols() && winLength == mode.getWinLength();
+    }
+
+    public boolean isInside(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public int indexOf(int row, int col) {
+        return row * cols + col;
+    }
+
+    public Player get(int row, int col) {
+        return get(indexOf(row, col));
+    }
+
+    public Player get(int index) {
+        if (isSet(xBits, index)) {
+            return Player.X;
+        }
+        if (isSet(oBits, index)) {
+            return Player.O;
+        }
+        return Player.NONE;
+    }
+
+    public boolean isEmpty(int index) {
+        return !isSet(xBits, index) && !isSet(oBits, index);
+    }
+
+    /**
+     * Places {@code player} on an empty cell.
+     *
+     * @return false if the cell is already occupied
+     */
+    public boolean place(int index, Player player) {
+        if (!isEmpty(index)) {
+            return false;
+        }
+        long[] bits = player == Player.X ? xBits : oBits;
+        bits[index >>> 6] |= 1L << index;
+        hash ^= zobristKeys[player == Player.X ? index : rows * cols + index];
+        filledCount++;
+        return true;
+    }
+
+    /**
+     * Empties a cell, returning the player that occupied it.
+     */
+    public Player clear(int index) {
+        Player previous = get(index);
+        if (previous != Player.NONE) {
+            long mask = ~(1L << index);
+            xBits[index >>> 6] &= mask;
+            oBits[index >>> 6] &= mask;
+            hash ^= zobristKeys[previous == Player.X ? index : rows * cols + index];
+            filledCount--;
+        }
+        return previous;
+    }
+
+    public void reset() {
+        Arrays.fill(xBits, 0L);
+        Arrays.fill(oBits, 0L);
+        filledCount = 0;
+        hash = 0L;
+    }
+
+    /**
+     * Zobrist hash of the stones on the board. Does not include the side to move.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getFilledCount() {
+        return filledCount;
+    }
+
+    public boolean isFull() {
+        return filledCount == rows * cols;
+    }
+
+    /**
+     * Checks whether the stone on {@code index} completes k in a row. Only the
+     * four lines through that cell are examined.
+     */
+    public boolean isWinningMove(int index) {
+        return winningDirection(index) >= 0;
+    }
+
+    /**
+     * Returns the cells of the winning run through {@code index}, or an empty
+     * array if the stone there does not complete one.
+     */
+    public int[] getWinningLine(int index) {
+        int direction = winningDirection(index);
+        if (direction < 0) {
+            return new int[0];
+        }
+        long[] bits = isSet(xBits, index) ? xBits : oBits;
+        int row = index / cols;
+        int col = index % cols;
+        int dr = DIRECTION_ROWS[direction];
+        int dc = DIRECTION_COLS[direction];
+        int back = countRun(bits, row, col, -dr, -dc, rows * cols);
+        int forward = countRun(bits, row, col, dr, dc, rows * cols);
+        int[] line = new int[back + forward + 1];
+        for (int i = 0; i < line.length; i++) {
+            int step = i - back;
+            line[i] = indexOf(row + step * dr, col + step * dc);
+        }
+        return line;
+    }
+
+    private int winningDirection(int index) {
+        long[] bits;
+        if (isSet(xBits, index)) {
+            bits = xBits;
+        } else if (isSet(oBits, index)) {
+            bits = oBits;
+        } else {
+            return -1;
+        }
+        int row = index / cols;
+        int col = index % cols;
+        int needed = winLength - 1;
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            int dr = DIRECTION_ROWS[d];
+            int dc = DIRECTION_COLS[d];
+            int run = countRun(bits, row, col, dr, dc, needed);
+            if (run < needed) {
+                run += countRun(bits, row, col, -dr, -dc, needed - run);
+            }
+            if (run >= needed) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    private int countRun(long[] bits, int row, int col, int dr, int dc, int limit) {
+        int count = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (count < limit && r >= 0 && r < rows && c >= 0 && c < cols && isSet(bits, r * cols + c)) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
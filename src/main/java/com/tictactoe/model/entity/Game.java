@@ -1,5 +1,6 @@
 package com.tictactoe.model.entity;
 
+import com.tictactoe.model.enums.GameMode;
 import com.tictactoe.model.enums.GameState;
 import com.tictactoe.model.enums.Player;
 
@@ -7,89 +8,78 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Game {
-    private final Player[][] board;
+    private final Board board;
     private Player currentPlayer;
     private GameState state;
     private final List<Integer> moves;
 
     public Game() {
-        board = new Player[3][3];
+        this(GameMode.CLASSIC);
+    }
+
+    public Game(GameMode mode) {
+        this(new Board(mode));
+    }
+
+    public Game(int rows, int cols, int winLength) {
+        this(new Board(rows, cols, winLength));
+    }
+
+    private Game(Board board) {
+        this.board = board;
         currentPlayer = Player.X;
         state = GameState.IN_PROGRESS;
         moves = new ArrayList<>();
-        initializeBoard();
-    }
-
-    private void initializeBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = Player.NONE;
-            }
-        }
     }
 
     public boolean makeMove(int row, int col) {
-        if (row < 0 || row >= 3 || col < 0 || col >= 3 || board[row][col] != Player.NONE || state != GameState.IN_PROGRESS) {
+        if (!board.isInside(row, col) || state != GameState.IN_PROGRESS) {
             return false;
         }
+        int index = board.indexOf(row, col);
+        if (!board.place(index, currentPlayer)) {
+            return false;
+        }
+        moves.add(index);
 
-        board[row][col] = currentPlayer;
-        moves.add(row * 3 + col);
-        
-        updateGameState();
+        updateGameState(index);
         if (state == GameState.IN_PROGRESS) {
             currentPlayer = (currentPlayer == Player.X) ? Player.O : Player.X;
         }
-        
+
         return true;
     }
 
-    private void updateGameState() {
-        // Check rows
-        for (int i = 0; i < 3; i++) {
-            if (checkLine(board[i][0], board[i][1], board[i][2])) {
-                state = (board[i][0] == Player.X) ? GameState.X_WON : GameState.O_WON;
-                return;
-            }
+    private void updateGameState(int lastMove) {
+        // Only lines through the last move can have been completed by it
+        if (board.isWinningMove(lastMove)) {
+            state = (currentPlayer == Player.X) ? GameState.X_WON : GameState.O_WON;
+        } else if (board.isFull()) {
+            state = GameState.DRAW;
         }
+    }
 
-        // Check columns
-        for (int j = 0; j < 3; j++) {
-            if (checkLine(board[0][j], board[1][j], board[2][j])) {
-                state = (board[0][j] == Player.X) ? GameState.X_WON : GameState.O_WON;
-                return;
-            }
-        }
+    public Player getCell(int row, int col) {
+        return board.get(row, col);
+    }
 
-        // Check diagonals
-        if (checkLine(board[0][0], board[1][1], board[2][2]) || 
-            checkLine(board[0][2], board[1][1], board[2][0])) {
-            state = (board[1][1] == Player.X) ? GameState.X_WON : GameState.O_WON;
-            return;
-        }
+    public int getRows() {
+        return board.getRows();
+    }
 
-        // Check for draw
-        boolean isDraw = true;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == Player.NONE) {
-                    isDraw = false;
-                    break;
-                }
-            }
-        }
-        
-        if (isDraw) {
-            state = GameState.DRAW;
-        }
+    public int getCols() {
+        return board.getCols();
     }
 
-    private boolean checkLine(Player a, Player b, Player c) {
-        return a != Player.NONE && a == b && b == c;
+    public int getWinLength() {
+        return board.getWinLength();
     }
 
-    public Player getCell(int row, int col) {
-        return board[row][col];
+    /**
+     * Returns a copy of the board that callers may freely modify.
+     */
+    public Board getBoardSnapshot() {
+        return board.copy();
     }
 
     public Player getCurrentPlayer() {
@@ -100,14 +90,17 @@ public class Game {
         return state;
     }
 
+    /**
+     * Moves as cell indices {@code row * cols + col}, in play order.
+     */
     public List<Integer> getMoves() {
         return new ArrayList<>(moves);
     }
 
     public void reset() {
-        initializeBoard();
+        board.reset();
         currentPlayer = Player.X;
         state = GameState.IN_PROGRESS;
         moves.clear();
     }
-} 
\ No newline at end of file
+}
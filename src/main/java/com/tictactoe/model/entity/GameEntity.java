@@ -1,6 +1,7 @@
 package com.tictactoe.model.entity;
 
 import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.util.MoveCodec;
 import java.time.LocalDateTime;
 
 public class GameEntity {
@@ -10,7 +11,9 @@ public class GameEntity {
     private Long winnerId;
     private boolean isDraw;
     private GameMode gameMode;
+    // Text and stored form of the moves; whichever was set, the other is converted on first use
     private String moves;
+    private byte[] encodedMoves;
     private LocalDateTime playedAt;
     
     // Transient fields for display purposes
@@ -66,12 +69,37 @@ public class GameEntity {
         this.gameMode = gameMode;
     }
 
+    /**
+     * Moves in the text form of {@link MoveCodec}. Player 1 made the first
+     * X or O move, which is an O in games recorded before player 1 was given
+     * the X stone.
+     */
     public String getMoves() {
+        if (moves == null && encodedMoves != null) {
+            moves = MoveCodec.decode(encodedMoves);
+        }
         return moves;
     }
 
     public void setMoves(String moves) {
         this.moves = moves;
+        this.encodedMoves = null;
+    }
+
+    /**
+     * Moves in the stored form of {@link MoveCodec}, or null if the text
+     * set is not in the move notation, e.g. for games recorded before it.
+     */
+    public byte[] getEncodedMoves() {
+        if (encodedMoves == null && moves != null) {
+            encodedMoves = MoveCodec.encode(moves);
+        }
+        return encodedMoves;
+    }
+
+    public void setEncodedMoves(byte[] encodedMoves) {
+        this.encodedMoves = encodedMoves;
+        this.moves = null;
     }
 
     public LocalDateTime getPlayedAt() {
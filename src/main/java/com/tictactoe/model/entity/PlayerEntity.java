@@ -1,5 +1,7 @@
 package com.tictactoe.model.entity;
 
+import com.tictactoe.util.EloRating;
+
 import java.time.LocalDateTime;
 
 public class PlayerEntity {
@@ -8,12 +10,14 @@ public class PlayerEntity {
     private int wins;
     private int losses;
     private int draws;
+    private double rating;
     private LocalDateTime createdAt;
 
     public PlayerEntity() {
         this.wins = 0;
         this.losses = 0;
         this.draws = 0;
+        this.rating = EloRating.INITIAL_RATING;
         this.createdAt = LocalDateTime.now();
     }
 
@@ -63,6 +67,14 @@ public class PlayerEntity {
         this.draws = draws;
     }
 
+    public double getRating() {
+        return rating;
+    }
+
+    public void setRating(double rating) {
+        this.rating = rating;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,6 +1,56 @@
 package com.tictactoe.model.enums;
 
 public enum GameMode {
-    CLASSIC,
-    ENDLESS
-} 
\ No newline at end of file
+    CLASSIC("Classic", 3, 3, 3, false, false),
+    ENDLESS("Endless", 3, 3, 3, true, false),
+    FOUR_IN_A_ROW("Four in a Row", 7, 7, 4, false, false),
+    GOMOKU("Gomoku", 15, 15, 5, false, false),
+    VS_AI("Vs Computer", 3, 3, 3, false, true),
+    GOMOKU_VS_AI("Gomoku Vs Computer", 15, 15, 5, false, true);
+
+    private final String displayName;
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final boolean endless;
+    private final boolean vsComputer;
+
+    GameMode(String displayName, int rows, int cols, int winLength, boolean endless, boolean vsComputer) {
+        this.displayName = displayName;
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.endless = endless;
+        this.vsComputer = vsComputer;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Endless modes never end in a draw: a full board is cleared instead.
+     */
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Player 2 is played by the computer.
+     */
+    public boolean isVsComputer() {
+        return vsComputer;
+    }
+}
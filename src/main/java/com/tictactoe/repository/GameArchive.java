@@ -0,0 +1,752 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.GameEntity;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Moves players and games in and out of the database in bulk, as
+ * newline-delimited JSON or a compact binary file. Both formats hold a
+ * version header, every player and then every game.
+ *
+ * <p>Export reads both tables in id order a page at a time and writes each
+ * row straight from the result set, so memory use does not depend on the
+ * size of the database and no connection is held between pages.</p>
+ *
+ * <p>Import parses the file on a separate thread while the caller's thread
+ * writes what was already parsed, in batches of {@value #BATCH_SIZE} rows
+ * per transaction on the writer connection. Players are matched by name:
+ * unknown names are created, known ones are reused. Games get new ids. The
+ * stats of the players are raised by the outcomes of each batch of games in
+ * the same transaction as its inserts, as for recorded results, and all
+ * ratings are recomputed by {@link RatingRecalculator} at the end, since
+ * imported games may be older than games already in the database. The
+ * counters and ratings stored in the file are not imported.</p>
+ *
+ * <p>Every batch is committed on its own, so an import that fails part of
+ * the way leaves the batches before the failure in place, with their stats
+ * applied.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.repository.GameArchive
+ * --export games.ndjson [--format binary]} or {@code --import games.ndjson};
+ * the format of an imported file is detected.</p>
+ */
+public class GameArchive {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchive.class);
+
+    public enum Format { NDJSON, BINARY }
+
+    private static final int VERSION = 1;
+    private static final int BINARY_MAGIC = 0x54545441; // "TTTA"
+    private static final byte END_TAG = 0;
+    private static final byte PLAYER_TAG = 1;
+    private static final byte GAME_TAG = 2;
+    private static final int PAGE_SIZE = 10_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int QUEUED_BATCHES = 8;
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+    private static final List<Object> END_OF_RECORDS = new ArrayList<>();
+
+    private static final String SELECT_PLAYERS_SQL = """
+        SELECT id, name, wins, losses, draws, rating, created_at FROM players
+        WHERE id > ? AND id <= ? ORDER BY id LIMIT ?
+    """;
+    private static final String SELECT_GAMES_SQL = """
+        SELECT id, player1_id, player2_id, winner_id, is_draw, game_mode, moves, played_at FROM games
+        WHERE id > ? AND id <= ? ORDER BY id LIMIT ?
+    """;
+    private static final String INSERT_PLAYER_SQL =
+            "INSERT INTO players (name, created_at) VALUES (?, ?) ON CONFLICT (name) DO NOTHING RETURNING id";
+    private static final String SELECT_PLAYER_ID_SQL = "SELECT id FROM players WHERE name = ?";
+    private static final String ADD_STATS_SQL =
+            "UPDATE players SET wins = wins + ?, losses = losses + ?, draws = draws + ? WHERE id = ? RETURNING *";
+
+    private final GameRepository gameRepository = new GameRepository();
+
+    public static void main(String[] args) {
+        Path exportFile = null;
+        Path importFile = null;
+        Format format = Format.NDJSON;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--export":
+                    exportFile = Paths.get(args[++i]);
+                    break;
+                case "--import":
+                    importFile = Paths.get(args[++i]);
+                    break;
+                case "--format":
+                    format = Format.valueOf(args[++i].toUpperCase());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if ((exportFile == null) == (importFile == null)) {
+            throw new IllegalArgumentException("Specify either --export <file> or --import <file>");
+        }
+        try {
+            GameArchive archive = new GameArchive();
+            System.out.println(exportFile != null
+                    ? archive.exportTo(exportFile, format)
+                    : archive.importFrom(importFile));
+        } finally {
+            DatabaseConfig.closeAllConnections();
+        }
+    }
+
+    public Result exportTo(Path file, Format format) {
+        long start = System.nanoTime();
+        try (ArchiveWriter out = format == Format.BINARY ? new BinaryWriter(file) : new NdjsonWriter(file)) {
+            long players = exportRows("players", SELECT_PLAYERS_SQL, out::writePlayer);
+            long games = exportRows("games", SELECT_GAMES_SQL, out::writeGame);
+            out.finish();
+            Result result = new Result("Exported", "to", file, format, players, games, 0, System.nanoTime() - start);
+            logger.info("{}", result);
+            return result;
+        } catch (IOException e) {
+            logger.error("Error exporting to {}", file, e);
+            throw new RuntimeException("Error exporting games", e);
+        }
+    }
+
+    /**
+     * Writes every row that exists when the export starts, one page per
+     * borrowed connection. Rows added meanwhile have higher ids and are left
+     * out.
+     */
+    private long exportRows(String table, String sql, RowWriter writer) throws IOException {
+        long lastId = 0;
+        long maxId = -1;
+        long rows = 0;
+        boolean more = true;
+        while (more) {
+            Connection conn = null;
+            try {
+                conn = DatabaseConfig.getReadConnection();
+                if (maxId < 0) {
+                    maxId = maxId(conn, table);
+                }
+                PreparedStatement stmt = DatabaseConfig.prepare(conn, sql);
+                stmt.setLong(1, lastId);
+                stmt.setLong(2, maxId);
+                stmt.setInt(3, PAGE_SIZE);
+                stmt.setFetchSize(PAGE_SIZE);
+                int pageRows = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        writer.write(rs);
+                        lastId = rs.getLong(1);
+                        pageRows++;
+                    }
+                }
+                rows += pageRows;
+                more = pageRows == PAGE_SIZE;
+            } catch (SQLException e) {
+                logger.error("Error exporting {} after id {}", table, lastId, e);
+                throw new RuntimeException("Error exporting " + table, e);
+            } finally {
+                if (conn != null) {
+                    DatabaseConfig.releaseConnection(conn);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static long maxId(Connection conn, String table) throws SQLException {
+        PreparedStatement stmt = DatabaseConfig.prepare(conn, "SELECT COALESCE(MAX(id), 0) FROM " + table);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public Result importFrom(Path file) {
+        long start = System.nanoTime();
+        Importer importer = new Importer();
+        RecordParser parser;
+        Format format;
+        try {
+            ArchiveReader in = openReader(file);
+            format = in instanceof BinaryReader ? Format.BINARY : Format.NDJSON;
+            parser = new RecordParser(in);
+        } catch (IOException e) {
+            logger.error("Error opening {}", file, e);
+            throw new RuntimeException("Error importing games", e);
+        }
+        parser.start();
+        try {
+            List<?> batch;
+            while ((batch = parser.batches.take()) != END_OF_RECORDS) {
+                importer.write(batch);
+            }
+            parser.join();
+            if (parser.failure != null) {
+                throw new RuntimeException("Error reading " + file, parser.failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing games", e);
+        } finally {
+            parser.interrupt();
+        }
+        if (importer.games > 0) {
+            new RatingRecalculator().recalculate();
+        }
+        Result result = new Result("Imported", "from", file, format, importer.players, importer.games,
+                importer.skipped, System.nanoTime() - start);
+        logger.info("{} ({} new players)", result, importer.createdPlayers);
+        return result;
+    }
+
+    private static ArchiveReader openReader(Path file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_BYTES);
+        try {
+            in.mark(Integer.BYTES);
+            DataInputStream data = new DataInputStream(in);
+            try {
+                if (data.readInt() == BINARY_MAGIC) {
+                    return new BinaryReader(data);
+                }
+            } catch (EOFException e) {
+                // Too short for a binary header; the NDJSON reader reports it
+            }
+            in.reset();
+            return new NdjsonReader(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes batches on the writer connection, mapping the file's player
+     * ids to database ids on the way.
+     */
+    private final class Importer {
+        final Map<Long, Long> playerIds = new HashMap<>();
+        long players;
+        long createdPlayers;
+        long games;
+        long skipped;
+
+        void write(List<?> batch) {
+            Connection conn = null;
+            try {
+                conn = DatabaseConfig.getConnection();
+                conn.setAutoCommit(false);
+                try {
+                    if (batch.get(0) instanceof PlayerEntity) {
+                        writePlayers(conn, batch);
+                    } else {
+                        writeGames(conn, batch);
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.error("Error importing a batch of {} records", batch.size(), e);
+                throw new RuntimeException("Error importing games", e);
+            } finally {
+                if (conn != null) {
+                    DatabaseConfig.releaseConnection(conn);
+                }
+            }
+        }
+
+        private void writePlayers(Connection conn, List<?> batch) throws SQLException {
+            List<PlayerEntity> created = new ArrayList<>();
+            Map<Long, Long> batchIds = new HashMap<>();
+            PreparedStatement insert = DatabaseConfig.prepare(conn, INSERT_PLAYER_SQL);
+            PreparedStatement select = DatabaseConfig.prepare(conn, SELECT_PLAYER_ID_SQL);
+            for (Object record : batch) {
+                PlayerEntity player = (PlayerEntity) record;
+                insert.setString(1, player.getName());
+                insert.setTimestamp(2, Timestamp.valueOf(player.getCreatedAt()));
+                Long id = null;
+                try (ResultSet rs = insert.executeQuery()) {
+                    if (rs.next()) {
+                        id = rs.getLong(1);
+                        PlayerEntity newPlayer = new PlayerEntity(player.getName());
+                        newPlayer.setId(id);
+                        newPlayer.setCreatedAt(player.getCreatedAt());
+                        created.add(newPlayer);
+                    }
+                }
+                if (id == null) {
+                    select.setString(1, player.getName());
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Player neither inserted nor found: " + player.getName());
+                        }
+                        id = rs.getLong(1);
+                    }
+                }
+                batchIds.put(player.getId(), id);
+            }
+            conn.commit();
+            for (PlayerEntity player : created) {
+                LeaderboardIndex.playerSaved(player);
+                PlayerCache.playerSaved(player);
+            }
+            playerIds.putAll(batchIds);
+            players += batch.size();
+            createdPlayers += created.size();
+        }
+
+        private void writeGames(Connection conn, List<?> batch) throws SQLException {
+            List<GameEntity> mapped = new ArrayList<>(batch.size());
+            // Per database player id: wins, losses and draws added by this batch
+            Map<Long, int[]> added = new HashMap<>();
+            for (Object record : batch) {
+                GameEntity game = (GameEntity) record;
+                Long player1 = playerIds.get(game.getPlayer1Id());
+                Long player2 = playerIds.get(game.getPlayer2Id());
+                Long winner = game.getWinnerId() == null ? null : playerIds.get(game.getWinnerId());
+                if (player1 == null || player2 == null || (game.getWinnerId() != null && winner == null)) {
+                    skipped++;
+                    continue;
+                }
+                game.setPlayer1Id(player1);
+                game.setPlayer2Id(player2);
+                game.setWinnerId(winner);
+                mapped.add(game);
+                addOutcome(added, game);
+            }
+            gameRepository.saveAll(conn, mapped);
+            List<PlayerEntity> updated = addStats(conn, added);
+            conn.commit();
+            for (PlayerEntity player : updated) {
+                LeaderboardIndex.playerSaved(player);
+                PlayerCache.playerSaved(player);
+            }
+            games += mapped.size();
+        }
+
+        // Same increments as GameRepository makes for a recorded result
+        private void addOutcome(Map<Long, int[]> added, GameEntity game) {
+            int[] stats1 = added.computeIfAbsent(game.getPlayer1Id(), id -> new int[3]);
+            int[] stats2 = added.computeIfAbsent(game.getPlayer2Id(), id -> new int[3]);
+            if (game.isDraw()) {
+                stats1[2]++;
+                if (stats2 != stats1) {
+                    stats2[2]++;
+                }
+            } else if (game.getWinnerId() != null) {
+                boolean player1Won = game.getWinnerId().equals(game.getPlayer1Id());
+                (player1Won ? stats1 : stats2)[0]++;
+                if (stats2 != stats1) {
+                    (player1Won ? stats2 : stats1)[1]++;
+                }
+            }
+        }
+
+        /**
+         * Raises the players' stats by the given increments and returns the
+         * updated rows.
+         */
+        private List<PlayerEntity> addStats(Connection conn, Map<Long, int[]> added) throws SQLException {
+            List<PlayerEntity> updated = new ArrayList<>(added.size());
+            PreparedStatement stmt = DatabaseConfig.prepare(conn, ADD_STATS_SQL);
+            for (Map.Entry<Long, int[]> entry : added.entrySet()) {
+                int[] stats = entry.getValue();
+                stmt.setInt(1, stats[0]);
+                stmt.setInt(2, stats[1]);
+                stmt.setInt(3, stats[2]);
+                stmt.setLong(4, entry.getKey());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        updated.add(PlayerRepository.mapResultSetToPlayer(rs));
+                    }
+                }
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Reads records off the file and hands them over in batches of a
+     * single kind, so that parsing overlaps with writing.
+     */
+    private static final class RecordParser extends Thread {
+        final BlockingQueue<List<?>> batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        final ArchiveReader in;
+        volatile Exception failure;
+
+        RecordParser(ArchiveReader in) {
+            super("archive-parser");
+            setDaemon(true);
+            this.in = in;
+        }
+
+        @Override
+        public void run() {
+            try (in) {
+                List<Object> batch = new ArrayList<>(BATCH_SIZE);
+                Object record;
+                while ((record = in.next()) != null) {
+                    if (!batch.isEmpty() && (batch.size() == BATCH_SIZE
+                            || batch.get(0).getClass() != record.getClass())) {
+                        batches.put(batch);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                    batch.add(record);
+                }
+                if (!batch.isEmpty()) {
+                    batches.put(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            try {
+                batches.put(END_OF_RECORDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private interface ArchiveWriter extends Closeable {
+        void writePlayer(ResultSet rs) throws SQLException, IOException;
+
+        void writeGame(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private interface ArchiveReader extends Closeable {
+        /**
+         * The next {@link PlayerEntity} or {@link GameEntity}, carrying the
+         * ids from the file, or null at the end.
+         */
+        Object next() throws IOException;
+    }
+
+    /**
+     * One JSON object per line: a header, then players, then games.
+     */
+    private static final class NdjsonWriter implements ArchiveWriter {
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(256);
+
+        NdjsonWriter(Path file) throws IOException {
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            line.append("{\"type\":\"archive\",\"version\":").append(VERSION).append('}');
+            writeLine();
+        }
+
+        @Override
+        public void writePlayer(ResultSet rs) throws SQLException, IOException {
+            line.append("{\"type\":\"player\",\"id\":").append(rs.getLong(1)).append(",\"name\":");
+            Json.quote(line, rs.getString(2))
+                    .append(",\"wins\":").append(rs.getInt(3))
+                    .append(",\"losses\":").append(rs.getInt(4))
+                    .append(",\"draws\":").append(rs.getInt(5))
+                    .append(",\"rating\":").append(rs.getDouble(6))
+                    .append(",\"createdAt\":\"").append(rs.getTimestamp(7).toLocalDateTime()).append("\"}");
+            writeLine();
+        }
+
+        @Override
+        public void writeGame(ResultSet rs) throws SQLException, IOException {
+            line.append("{\"type\":\"game\",\"id\":").append(rs.getLong(1))
+                    .append(",\"player1\":").append(rs.getLong(2))
+                    .append(",\"player2\":").append(rs.getLong(3))
+                    .append(",\"winner\":");
+            long winner = rs.getLong(4);
+            if (rs.wasNull()) {
+                line.append("null");
+            } else {
+                line.append(winner);
+            }
+            line.append(",\"draw\":").append(rs.getBoolean(5))
+                    .append(",\"mode\":\"").append(rs.getString(6)).append("\",\"moves\":");
+            Json.quote(line, GameRepository.movesText(rs.getObject(7)))
+                    .append(",\"playedAt\":\"").append(GameRepository.fromEpochMillis(rs.getLong(8))).append("\"}");
+            writeLine();
+        }
+
+        private void writeLine() throws IOException {
+            line.append('\n');
+            out.append(line);
+            line.setLength(0);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class NdjsonReader implements ArchiveReader {
+        private final BufferedReader in;
+        private long lineNumber;
+
+        NdjsonReader(InputStream in) throws IOException {
+            this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), IO_BUFFER_BYTES);
+            Map<String, String> header = nextObject();
+            if (header == null || !"archive".equals(header.get("type"))) {
+                throw new IOException("Not a game archive: missing header line");
+            }
+            int version = Integer.parseInt(header.get("version"));
+            if (version > VERSION) {
+                throw new IOException("Unsupported game archive version " + version);
+            }
+        }
+
+        @Override
+        public Object next() throws IOException {
+            Map<String, String> values = nextObject();
+            if (values == null) {
+                return null;
+            }
+            try {
+                String type = values.get("type");
+                if ("player".equals(type)) {
+                    PlayerEntity player = new PlayerEntity(values.get("name"));
+                    player.setId(Long.parseLong(values.get("id")));
+                    player.setCreatedAt(LocalDateTime.parse(values.get("createdAt")));
+                    return player;
+                } else if ("game".equals(type)) {
+                    GameEntity game = new GameEntity();
+                    game.setPlayer1Id(Long.parseLong(values.get("player1")));
+                    game.setPlayer2Id(Long.parseLong(values.get("player2")));
+                    String winner = values.get("winner");
+                    game.setWinnerId(winner == null ? null : Long.parseLong(winner));
+                    game.setDraw(Boolean.parseBoolean(values.get("draw")));
+                    game.setGameMode(GameMode.valueOf(values.get("mode")));
+                    game.setMoves(values.get("moves"));
+                    game.setPlayedAt(LocalDateTime.parse(values.get("playedAt")));
+                    return game;
+                }
+                throw new IllegalArgumentException("Unknown record type " + type);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid record on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        private Map<String, String> nextObject() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return Json.parseObject(line);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid JSON on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * A magic number and version, then one tagged record per row and an
+     * end tag. Times are epoch milliseconds as returned by
+     * {@link Timestamp#getTime()}; a game without a winner stores 0.
+     */
+    private static final class BinaryWriter implements ArchiveWriter {
+        private final DataOutputStream out;
+
+        BinaryWriter(Path file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_BYTES));
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        @Override
+        public void writePlayer(ResultSet rs) throws SQLException, IOException {
+            out.writeByte(PLAYER_TAG);
+            out.writeLong(rs.getLong(1));
+            out.writeUTF(rs.getString(2));
+            out.writeInt(rs.getInt(3));
+            out.writeInt(rs.getInt(4));
+            out.writeInt(rs.getInt(5));
+            out.writeDouble(rs.getDouble(6));
+            out.writeLong(rs.getTimestamp(7).getTime());
+        }
+
+        @Override
+        public void writeGame(ResultSet rs) throws SQLException, IOException {
+            out.writeByte(GAME_TAG);
+            out.writeLong(rs.getLong(1));
+            out.writeLong(rs.getLong(2));
+            out.writeLong(rs.getLong(3));
+            out.writeLong(rs.getLong(4)); // 0 when NULL
+            out.writeBoolean(rs.getBoolean(5));
+            out.writeUTF(rs.getString(6));
+            // Archives keep the text notation, so they stay readable whatever the stored
+            // encoding; endless games can outgrow writeUTF's 64 KB limit
+            byte[] moves = GameRepository.movesText(rs.getObject(7)).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(moves.length);
+            out.write(moves);
+            out.writeLong(rs.getLong(8));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.writeByte(END_TAG);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class BinaryReader implements ArchiveReader {
+        private final DataInputStream in;
+
+        // The magic number has already been read
+        BinaryReader(DataInputStream in) throws IOException {
+            this.in = in;
+            int version = in.readInt();
+            if (version > VERSION) {
+                throw new IOException("Unsupported game archive version " + version);
+            }
+        }
+
+        @Override
+        public Object next() throws IOException {
+            byte tag = in.readByte();
+            if (tag == PLAYER_TAG) {
+                long id = in.readLong();
+                PlayerEntity player = new PlayerEntity(in.readUTF());
+                player.setId(id);
+                player.setWins(in.readInt());
+                player.setLosses(in.readInt());
+                player.setDraws(in.readInt());
+                player.setRating(in.readDouble());
+                player.setCreatedAt(new Timestamp(in.readLong()).toLocalDateTime());
+                return player;
+            } else if (tag == GAME_TAG) {
+                GameEntity game = new GameEntity();
+                in.readLong(); // Imported games get new ids
+                game.setPlayer1Id(in.readLong());
+                game.setPlayer2Id(in.readLong());
+                long winner = in.readLong();
+                game.setWinnerId(winner == 0 ? null : winner);
+                game.setDraw(in.readBoolean());
+                game.setGameMode(GameMode.valueOf(in.readUTF()));
+                byte[] moves = new byte[in.readInt()];
+                in.readFully(moves);
+                game.setMoves(new String(moves, StandardCharsets.UTF_8));
+                game.setPlayedAt(GameRepository.fromEpochMillis(in.readLong()));
+                return game;
+            } else if (tag == END_TAG) {
+                return null;
+            }
+            throw new IOException("Corrupt game archive: unknown record tag " + tag);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static class Result {
+        private final String action;
+        private final String direction;
+        private final Path file;
+        private final Format format;
+        private final long players;
+        private final long games;
+        private final long skippedGames;
+        private final long nanos;
+
+        Result(String action, String direction, Path file, Format format, long players, long games,
+               long skippedGames, long nanos) {
+            this.action = action;
+            this.direction = direction;
+            this.file = file;
+            this.format = format;
+            this.players = players;
+            this.games = games;
+            this.skippedGames = skippedGames;
+            this.nanos = nanos;
+        }
+
+        public long getPlayers() {
+            return players;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Imported games whose players were not in the file.
+         */
+        public long getSkippedGames() {
+            return skippedGames;
+        }
+
+        public double getGamesPerSecond() {
+            return nanos > 0 ? games * 1e9 / nanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d players and %d games (%d skipped) %s %s (%s) in %.1f s (%.0f games/s)",
+                    action, players, games, skippedGames, direction, file, format, nanos / 1e9,
+                    getGamesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.model.entity.GameEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of a player's games, newest first (latest played_at, then
+ * highest id), plus the cursor to continue from.
+ */
+public class GameHistoryPage {
+    private final List<GameEntity> games;
+    private final Cursor next;
+
+    GameHistoryPage(List<GameEntity> games, Cursor next) {
+        this.games = games;
+        this.next = next;
+    }
+
+    public List<GameEntity> getGames() {
+        return games;
+    }
+
+    /**
+     * Where the following, older page starts, or empty if this is the last
+     * page.
+     */
+    public Optional<Cursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+    /**
+     * Position after a game, identified by the sort key of the last row
+     * returned. Games recorded while paging are newer than any cursor, so
+     * they never shift the following pages.
+     */
+    public static class Cursor {
+        // As stored, see GameRepository.toEpochMillis
+        private final long playedAt;
+        private final long id;
+
+        Cursor(long playedAt, long id) {
+            this.playedAt = playedAt;
+            this.id = id;
+        }
+
+        static Cursor after(GameEntity game) {
+            return new Cursor(GameRepository.toEpochMillis(game.getPlayedAt()), game.getId());
+        }
+
+        long getPlayedAt() {
+            return playedAt;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        /**
+         * Opaque text form, e.g. for a query parameter.
+         */
+        public String encode() {
+            return playedAt + ":" + id;
+        }
+
+        public static Cursor decode(String text) {
+            int separator = text.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid game history cursor: " + text);
+            }
+            return new Cursor(Long.parseLong(text.substring(0, separator)),
+                    Long.parseLong(text.substring(separator + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return encode();
+        }
+    }
+}
@@ -0,0 +1,617 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.util.MoveCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, column-oriented copy of the games table for analytics. Each
+ * game is a row index into primitive arrays: player indexes, outcome and
+ * mode as bytes, the play time as stored (epoch millis) and the moves as
+ * their {@link MoveCodec} bytes, concatenated. A million games take about
+ * 50 MB, against several hundred as {@link com.tictactoe.model.entity.GameEntity}
+ * objects.
+ *
+ * <p>Aggregates are computed by scanning the columns in parallel chunks,
+ * each summing into its own array, and adding the arrays up. A
+ * {@link Filter} restricts a scan to a time range, a mode or the games of
+ * one player.</p>
+ *
+ * <p>A store is a snapshot and never changes, so any number of threads can
+ * scan it. {@link #refresh()} returns a new snapshot with the games
+ * recorded since, read by id, which is far cheaper than loading again.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.repository.GameHistoryStore [--player <name>] [--since <yyyy-mm-dd>]}</p>
+ */
+public final class GameHistoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(GameHistoryStore.class);
+    private static final String SELECT_GAMES_SQL = """
+        SELECT id, player1_id, player2_id, winner_id, is_draw, game_mode, moves, played_at FROM games
+        WHERE id > ? ORDER BY id LIMIT ?
+        """;
+    // Rows read per borrowed connection, so a long load never holds one for long
+    private static final int PAGE_SIZE = 50_000;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Below this many rows per chunk, forking costs more than it saves
+    private static final int MIN_CHUNK_ROWS = 1 << 16;
+    private static final GameMode[] MODES = GameMode.values();
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // Outcome codes, from player 1's point of view
+    private static final byte UNFINISHED = 0;
+    private static final byte PLAYER1_WON = 1;
+    private static final byte PLAYER2_WON = 2;
+    private static final byte DRAW = 3;
+
+    // Layout of one group in the arrays scans sum into
+    private static final int GAMES = 0;
+    private static final int WINS = 1;
+    private static final int LOSSES = 2;
+    private static final int DRAWS = 3;
+    private static final int MOVES = 4;
+    private static final int FIELDS = 5;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] playedAt;
+    private final int[] player1;
+    private final int[] player2;
+    private final byte[] outcomes;
+    private final byte[] modes;
+    // Moves of row i are moveData[moveOffsets[i] .. moveOffsets[i + 1]), empty if not in the move notation
+    private final int[] moveOffsets;
+    private final byte[] moveData;
+    private final long[] playerIds;
+    private final Map<Long, Integer> playerIndexes;
+    private final long firstPlayedAt;
+    private final long lastPlayedAt;
+    private final long skippedGames;
+    private final long unencodedMoves;
+
+    private GameHistoryStore(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        playedAt = Arrays.copyOf(builder.playedAt, size);
+        player1 = Arrays.copyOf(builder.player1, size);
+        player2 = Arrays.copyOf(builder.player2, size);
+        outcomes = Arrays.copyOf(builder.outcomes, size);
+        modes = Arrays.copyOf(builder.modes, size);
+        moveOffsets = Arrays.copyOf(builder.moveOffsets, size + 1);
+        moveData = Arrays.copyOf(builder.moveData, builder.moveOffsets[size]);
+        playerIds = Arrays.copyOf(builder.playerIds, builder.playerIndexes.size());
+        playerIndexes = builder.playerIndexes;
+        firstPlayedAt = builder.firstPlayedAt;
+        lastPlayedAt = builder.lastPlayedAt;
+        skippedGames = builder.skippedGames;
+        unencodedMoves = builder.unencodedMoves;
+    }
+
+    public static void main(String[] args) {
+        String playerName = null;
+        LocalDateTime since = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--player": playerName = args[++i]; break;
+                case "--since": since = LocalDate.parse(args[++i]).atStartOfDay(); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        try {
+            GameHistoryStore store = load();
+            System.out.println(store);
+            Filter filter = Filter.all().between(since, null);
+            if (playerName != null) {
+                String name = playerName;
+                PlayerEntity player = new PlayerRepository().findByName(name)
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown player: " + name));
+                filter = filter.player(player.getId());
+            }
+            long start = System.nanoTime();
+            Results total = store.results(filter);
+            System.out.printf("All games (%.1f ms): %s%n", (System.nanoTime() - start) / 1e6, total);
+            start = System.nanoTime();
+            Map<GameMode, Results> byMode = store.resultsByMode(filter);
+            System.out.printf("By mode (%.1f ms):%n", (System.nanoTime() - start) / 1e6);
+            byMode.forEach((mode, results) -> System.out.printf("  %-13s %s%n", mode, results));
+            start = System.nanoTime();
+            SortedMap<LocalDate, Results> byDay = store.resultsByDay(filter);
+            System.out.printf("By day, last 7 of %d (%.1f ms):%n", byDay.size(), (System.nanoTime() - start) / 1e6);
+            byDay.entrySet().stream().skip(Math.max(0, byDay.size() - 7))
+                    .forEach(day -> System.out.printf("  %s    %s%n", day.getKey(), day.getValue()));
+            start = System.nanoTime();
+            Map<Long, Results> byPlayer = store.resultsByPlayer(filter);
+            System.out.printf("By player: %d players (%.1f ms)%n", byPlayer.size(), (System.nanoTime() - start) / 1e6);
+        } finally {
+            DatabaseConfig.closeAllConnections();
+        }
+    }
+
+    /**
+     * Reads every game in the database.
+     */
+    public static GameHistoryStore load() {
+        return new Builder().read();
+    }
+
+    /**
+     * A new snapshot with the games recorded since this one was read. Games
+     * are only ever added, with increasing ids, so only those are read.
+     */
+    public GameHistoryStore refresh() {
+        return new Builder(this).read();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPlayerCount() {
+        return playerIds.length;
+    }
+
+    /**
+     * Bytes held by the columns, not counting the player id map.
+     */
+    public long getColumnBytes() {
+        return 8L * (ids.length + playedAt.length + playerIds.length)
+                + 4L * (player1.length + player2.length + moveOffsets.length)
+                + outcomes.length + modes.length + moveData.length;
+    }
+
+    /**
+     * Totals over all games that match.
+     */
+    public Results results(Filter filter) {
+        return new Results(aggregate(filter, 1, () -> row -> 0), 0);
+    }
+
+    /**
+     * Results of every player with a matching game, in order of first
+     * appearance.
+     */
+    public Map<Long, Results> resultsByPlayer(Filter filter) {
+        long[] totals = aggregate(filter, playerIds.length, null);
+        Map<Long, Results> results = new LinkedHashMap<>();
+        for (int player = 0; player < playerIds.length; player++) {
+            if (totals[player * FIELDS + GAMES] > 0) {
+                results.put(playerIds[player], new Results(totals, player));
+            }
+        }
+        return results;
+    }
+
+    public Map<GameMode, Results> resultsByMode(Filter filter) {
+        long[] totals = aggregate(filter, MODES.length, () -> row -> modes[row]);
+        Map<GameMode, Results> results = new EnumMap<>(GameMode.class);
+        for (GameMode mode : MODES) {
+            if (totals[mode.ordinal() * FIELDS + GAMES] > 0) {
+                results.put(mode, new Results(totals, mode.ordinal()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Results per calendar day in the JVM's zone, the zone play times are
+     * stored in.
+     */
+    public SortedMap<LocalDate, Results> resultsByDay(Filter filter) {
+        SortedMap<LocalDate, Results> results = new TreeMap<>();
+        if (size == 0) {
+            return results;
+        }
+        LocalDate firstDay = toLocalDateTime(firstPlayedAt).toLocalDate();
+        int days = (int) (toLocalDateTime(lastPlayedAt).toLocalDate().toEpochDay() - firstDay.toEpochDay()) + 1;
+        long[] totals = aggregate(filter, days, () -> new DayGrouping(firstDay.toEpochDay()));
+        for (int day = 0; day < days; day++) {
+            if (totals[day * FIELDS + GAMES] > 0) {
+                results.put(firstDay.plusDays(day), new Results(totals, day));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sums the matching rows into {@code groups} groups, chunk by chunk in
+     * parallel. Each chunk gets its own grouping function, so it can keep
+     * state; without one, a row counts for each of its players instead.
+     */
+    private long[] aggregate(Filter filter, int groups, Supplier<IntUnaryOperator> groupings) {
+        long from = filter.from != null ? GameRepository.toEpochMillis(filter.from) : Long.MIN_VALUE;
+        long to = filter.to != null ? GameRepository.toEpochMillis(filter.to) : Long.MAX_VALUE;
+        int mode = filter.mode != null ? filter.mode.ordinal() : -1;
+        int player = -1;
+        if (filter.playerId != null) {
+            Integer index = playerIndexes.get(filter.playerId);
+            if (index == null) {
+                return new long[groups * FIELDS];
+            }
+            player = index;
+        }
+        int onlyPlayer = player;
+        int chunks = Math.max(1, Math.min(size / MIN_CHUNK_ROWS, ForkJoinPool.getCommonPoolParallelism() * 4));
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] totals = new long[groups * FIELDS];
+                    IntUnaryOperator grouping = groupings != null ? groupings.get() : null;
+                    int end = (int) ((long) size * (chunk + 1) / chunks);
+                    for (int row = (int) ((long) size * chunk / chunks); row < end; row++) {
+                        long time = playedAt[row];
+                        if (time < from || time >= to || (mode >= 0 && modes[row] != mode)) {
+                            continue;
+                        }
+                        int first = player1[row];
+                        int second = player2[row];
+                        int outcome = outcomes[row];
+                        if (grouping == null) {
+                            if (onlyPlayer < 0 || onlyPlayer == first) {
+                                add(totals, first, outcome, row);
+                            }
+                            // A game against oneself counts once, as in the stored stats
+                            if (second != first && (onlyPlayer < 0 || onlyPlayer == second)) {
+                                add(totals, second, swapSides(outcome), row);
+                            }
+                        } else if (onlyPlayer < 0 || onlyPlayer == first) {
+                            add(totals, grouping.applyAsInt(row), outcome, row);
+                        } else if (onlyPlayer == second) {
+                            add(totals, grouping.applyAsInt(row), swapSides(outcome), row);
+                        }
+                    }
+                    return totals;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                    return a;
+                })
+                .orElseGet(() -> new long[groups * FIELDS]);
+    }
+
+    private void add(long[] totals, int group, int outcome, int row) {
+        int base = group * FIELDS;
+        totals[base + GAMES]++;
+        if (outcome == PLAYER1_WON) {
+            totals[base + WINS]++;
+        } else if (outcome == PLAYER2_WON) {
+            totals[base + LOSSES]++;
+        } else if (outcome == DRAW) {
+            totals[base + DRAWS]++;
+        }
+        int offset = moveOffsets[row];
+        if (offset < moveOffsets[row + 1]) {
+            totals[base + MOVES] += MoveCodec.moveCount(moveData, offset);
+        }
+    }
+
+    private static int swapSides(int outcome) {
+        return outcome == PLAYER1_WON ? PLAYER2_WON : outcome == PLAYER2_WON ? PLAYER1_WON : outcome;
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games of %d players, %.1f MB in columns (%d skipped, %d with moves not in the notation)",
+                size, playerIds.length, getColumnBytes() / 1048576.0, skippedGames, unencodedMoves);
+    }
+
+    /**
+     * Maps a row to its day since the first day in the store. Rows are in id
+     * order, which is nearly time order, so the bounds of the last day seen
+     * almost always answer without converting the time.
+     */
+    private final class DayGrouping implements IntUnaryOperator {
+        private final long firstDay;
+        private long dayStart = Long.MAX_VALUE;
+        private long dayEnd = Long.MIN_VALUE;
+        private int day;
+
+        DayGrouping(long firstDay) {
+            this.firstDay = firstDay;
+        }
+
+        @Override
+        public int applyAsInt(int row) {
+            long time = playedAt[row];
+            if (time < dayStart || time >= dayEnd) {
+                LocalDate date = toLocalDateTime(time).toLocalDate();
+                dayStart = date.atStartOfDay(ZONE).toInstant().toEpochMilli();
+                dayEnd = date.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+                day = (int) (date.toEpochDay() - firstDay);
+            }
+            return day;
+        }
+    }
+
+    /**
+     * Which games a scan counts. Starts from {@link #all()}; each method
+     * returns a narrower copy.
+     */
+    public static final class Filter {
+        private static final Filter ALL = new Filter(null, null, null, null);
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final GameMode mode;
+        private final Long playerId;
+
+        private Filter(LocalDateTime from, LocalDateTime to, GameMode mode, Long playerId) {
+            this.from = from;
+            this.to = to;
+            this.mode = mode;
+            this.playerId = playerId;
+        }
+
+        public static Filter all() {
+            return ALL;
+        }
+
+        /**
+         * Games played from {@code from} (inclusive) until {@code to}
+         * (exclusive); a null bound is open.
+         */
+        public Filter between(LocalDateTime from, LocalDateTime to) {
+            return new Filter(from, to, mode, playerId);
+        }
+
+        public Filter mode(GameMode mode) {
+            return new Filter(from, to, mode, playerId);
+        }
+
+        /**
+         * Games of one player. Results are then from that player's side,
+         * in every grouping.
+         */
+        public Filter player(Long playerId) {
+            return new Filter(from, to, mode, playerId);
+        }
+    }
+
+    /**
+     * Outcome counts of a group of games. Wins and losses are from the
+     * player's side when grouped by player or filtered to one player, and
+     * from player 1's (the first mover's) side otherwise. Games that ended
+     * without a result count in none of them.
+     */
+    public static class Results {
+        private final long games;
+        private final long wins;
+        private final long losses;
+        private final long draws;
+        private final long moves;
+
+        Results(long[] totals, int group) {
+            int base = group * FIELDS;
+            this.games = totals[base + GAMES];
+            this.wins = totals[base + WINS];
+            this.losses = totals[base + LOSSES];
+            this.draws = totals[base + DRAWS];
+            this.moves = totals[base + MOVES];
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public long getLosses() {
+            return losses;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getUnfinished() {
+            return games - wins - losses - draws;
+        }
+
+        public double getWinRate() {
+            return games > 0 ? (double) wins / games : 0.0;
+        }
+
+        public double getAverageMoves() {
+            return games > 0 ? (double) moves / games : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %d wins, %d losses, %d draws (%.1f%% won), %.1f moves per game",
+                    games, wins, losses, draws, getWinRate() * 100, getAverageMoves());
+        }
+    }
+
+    /**
+     * Growable columns, filled page by page from the games table.
+     */
+    private static final class Builder {
+        int size;
+        long[] ids;
+        long[] playedAt;
+        int[] player1;
+        int[] player2;
+        byte[] outcomes;
+        byte[] modes;
+        int[] moveOffsets;
+        byte[] moveData;
+        long[] playerIds;
+        final Map<Long, Integer> playerIndexes;
+        long firstPlayedAt = Long.MAX_VALUE;
+        long lastPlayedAt = Long.MIN_VALUE;
+        long skippedGames;
+        long unencodedMoves;
+        long lastId;
+
+        Builder() {
+            ids = new long[INITIAL_CAPACITY];
+            playedAt = new long[INITIAL_CAPACITY];
+            player1 = new int[INITIAL_CAPACITY];
+            player2 = new int[INITIAL_CAPACITY];
+            outcomes = new byte[INITIAL_CAPACITY];
+            modes = new byte[INITIAL_CAPACITY];
+            moveOffsets = new int[INITIAL_CAPACITY + 1];
+            moveData = new byte[INITIAL_CAPACITY * 16];
+            playerIds = new long[INITIAL_CAPACITY];
+            playerIndexes = new HashMap<>();
+        }
+
+        // Continues from a snapshot; its arrays are copied, never changed
+        Builder(GameHistoryStore store) {
+            int capacity = Math.max(INITIAL_CAPACITY, store.size + store.size / 8);
+            size = store.size;
+            ids = Arrays.copyOf(store.ids, capacity);
+            playedAt = Arrays.copyOf(store.playedAt, capacity);
+            player1 = Arrays.copyOf(store.player1, capacity);
+            player2 = Arrays.copyOf(store.player2, capacity);
+            outcomes = Arrays.copyOf(store.outcomes, capacity);
+            modes = Arrays.copyOf(store.modes, capacity);
+            moveOffsets = Arrays.copyOf(store.moveOffsets, capacity + 1);
+            moveData = Arrays.copyOf(store.moveData, Math.max(INITIAL_CAPACITY * 16, store.moveData.length * 9 / 8));
+            playerIds = Arrays.copyOf(store.playerIds, Math.max(INITIAL_CAPACITY, store.playerIds.length * 9 / 8));
+            playerIndexes = new HashMap<>(store.playerIndexes);
+            firstPlayedAt = store.size > 0 ? store.firstPlayedAt : Long.MAX_VALUE;
+            lastPlayedAt = store.size > 0 ? store.lastPlayedAt : Long.MIN_VALUE;
+            skippedGames = store.skippedGames;
+            unencodedMoves = store.unencodedMoves;
+            lastId = store.size > 0 ? store.ids[store.size - 1] : 0;
+        }
+
+        GameHistoryStore read() {
+            long start = System.nanoTime();
+            int before = size;
+            boolean more = true;
+            while (more) {
+                Connection conn = null;
+                try {
+                    conn = DatabaseConfig.getReadConnection();
+                    PreparedStatement stmt = DatabaseConfig.prepare(conn, SELECT_GAMES_SQL);
+                    stmt.setLong(1, lastId);
+                    stmt.setInt(2, PAGE_SIZE);
+                    stmt.setFetchSize(PAGE_SIZE);
+                    int pageRows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            add(rs);
+                            pageRows++;
+                        }
+                    }
+                    more = pageRows == PAGE_SIZE;
+                } catch (SQLException e) {
+                    logger.error("Error reading game history after id {}", lastId, e);
+                    throw new RuntimeException("Error reading game history", e);
+                } finally {
+                    if (conn != null) {
+                        DatabaseConfig.releaseConnection(conn);
+                    }
+                }
+            }
+            GameHistoryStore store = new GameHistoryStore(this);
+            logger.info("Read {} games into the history store in {} ms: {}",
+                    size - before, (System.nanoTime() - start) / 1_000_000, store);
+            return store;
+        }
+
+        private void add(ResultSet rs) throws SQLException {
+            lastId = rs.getLong(1);
+            int first = playerIndex(rs.getLong(2));
+            int second = playerIndex(rs.getLong(3));
+            long winner = rs.getLong(4);
+            boolean hasWinner = !rs.wasNull();
+            boolean draw = rs.getBoolean(5);
+            GameMode mode;
+            try {
+                mode = GameMode.valueOf(rs.getString(6));
+            } catch (IllegalArgumentException e) {
+                skippedGames++;
+                return;
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            byte outcome = UNFINISHED;
+            if (draw) {
+                outcome = DRAW;
+            } else if (hasWinner && winner == playerIds[first]) {
+                outcome = PLAYER1_WON;
+            } else if (hasWinner && winner == playerIds[second]) {
+                outcome = PLAYER2_WON;
+            }
+            ids[size] = lastId;
+            player1[size] = first;
+            player2[size] = second;
+            outcomes[size] = outcome;
+            modes[size] = (byte) mode.ordinal();
+            long time = rs.getLong(8);
+            playedAt[size] = time;
+            firstPlayedAt = Math.min(firstPlayedAt, time);
+            lastPlayedAt = Math.max(lastPlayedAt, time);
+
+            Object stored = rs.getObject(7);
+            byte[] moves = stored instanceof byte[] ? (byte[]) stored : MoveCodec.encode((String) stored);
+            int offset = moveOffsets[size];
+            if (moves == null) {
+                unencodedMoves++;
+                moves = new byte[0];
+            }
+            if (offset + moves.length > moveData.length) {
+                moveData = Arrays.copyOf(moveData, Math.max(moveData.length * 2, offset + moves.length));
+            }
+            System.arraycopy(moves, 0, moveData, offset, moves.length);
+            moveOffsets[size + 1] = offset + moves.length;
+            size++;
+        }
+
+        private int playerIndex(long id) {
+            Integer index = playerIndexes.get(id);
+            if (index == null) {
+                index = playerIndexes.size();
+                if (index == playerIds.length) {
+                    playerIds = Arrays.copyOf(playerIds, index * 2);
+                }
+                playerIds[index] = id;
+                playerIndexes.put(id, index);
+            }
+            return index;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            playedAt = Arrays.copyOf(playedAt, capacity);
+            player1 = Arrays.copyOf(player1, capacity);
+            player2 = Arrays.copyOf(player2, capacity);
+            outcomes = Arrays.copyOf(outcomes, capacity);
+            modes = Arrays.copyOf(modes, capacity);
+            moveOffsets = Arrays.copyOf(moveOffsets, capacity + 1);
+        }
+    }
+}
@@ -3,85 +3,127 @@ package com.tictactoe.repository;
 import com.tictactoe.model.entity.GameEntity;
 import com.tictactoe.model.enums.GameMode;
 import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.util.EloRating;
+import com.tictactoe.util.MoveCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class GameRepository {
     private static final Logger logger = LoggerFactory.getLogger(GameRepository.class);
-    private static final String CREATE_TABLE_SQL = """
-        CREATE TABLE IF NOT EXISTS games (
-            id INTEGER PRIMARY KEY AUTOINCREMENT,
-            player1_id INTEGER NOT NULL,
-            player2_id INTEGER NOT NULL,
-            winner_id INTEGER,
-            is_draw BOOLEAN NOT NULL,
-            game_mode TEXT NOT NULL,
-            moves TEXT NOT NULL,
-            played_at TIMESTAMP NOT NULL,
-            FOREIGN KEY (player1_id) REFERENCES players(id),
-            FOREIGN KEY (player2_id) REFERENCES players(id),
-            FOREIGN KEY (winner_id) REFERENCES players(id)
-        )
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final String INSERT_SQL =
+            "INSERT INTO games (player1_id, player2_id, winner_id, is_draw, game_mode, moves, played_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RETURNING_ID_SQL = INSERT_SQL + " RETURNING id";
+
+    // Comparisons with a NULL winner are NULL, which COALESCE turns into no change
+    private static final String RECORD_OUTCOME_SQL = """
+        UPDATE players SET
+            wins = wins + COALESCE(id = ?, 0),
+            losses = losses + COALESCE(id <> ?, 0),
+            draws = draws + ?,
+            rating = CASE id WHEN ? THEN ? ELSE ? END
+        WHERE id IN (?, ?)
     """;
+    private static final String SELECT_RATING_SQL = "SELECT rating FROM players WHERE id = ?";
 
-    public GameRepository() {
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(CREATE_TABLE_SQL);
-            logger.info("Games table created or verified");
-        } catch (SQLException e) {
-            logger.error("Error creating games table", e);
-        }
-    }
+    // The two branches read the player1 and player2 indexes in order, so an OR
+    // over both never sorts the whole history; the second skips games a
+    // player played against themselves, which the first already returned
+    private static final String HISTORY_PAGE_SQL = """
+        SELECT g.*,
+               p1.name as player1_name,
+               p2.name as player2_name,
+               w.name as winner_name
+        FROM (
+            SELECT * FROM (
+                SELECT * FROM games WHERE player1_id = ? %1$s
+                ORDER BY played_at DESC, id DESC LIMIT ?
+            )
+            UNION ALL
+            SELECT * FROM (
+                SELECT * FROM games WHERE player2_id = ? AND player1_id <> ? %1$s
+                ORDER BY played_at DESC, id DESC LIMIT ?
+            )
+        ) g
+        LEFT JOIN players p1 ON g.player1_id = p1.id
+        LEFT JOIN players p2 ON g.player2_id = p2.id
+        LEFT JOIN players w ON g.winner_id = w.id
+        ORDER BY g.played_at DESC, g.id DESC
+        LIMIT ?
+    """;
+    private static final String FIRST_HISTORY_PAGE_SQL = String.format(HISTORY_PAGE_SQL, "");
+    private static final String NEXT_HISTORY_PAGE_SQL = String.format(HISTORY_PAGE_SQL, "AND (played_at, id) < (?, ?)");
+    private static final int HISTORY_STREAM_PAGE_SIZE = 500;
 
     public GameEntity save(GameEntity game) {
-        String sql = "INSERT INTO games (player1_id, player2_id, winner_id, is_draw, game_mode, moves, played_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
         Connection conn = null;
         
         try {
             conn = DatabaseConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setLong(1, game.getPlayer1Id());
-                stmt.setLong(2, game.getPlayer2Id());
-                if (game.getWinnerId() != null) {
-                    stmt.setLong(3, game.getWinnerId());
-                } else {
-                    stmt.setNull(3, java.sql.Types.INTEGER);
-                }
-                stmt.setBoolean(4, game.isDraw());
-                stmt.setString(5, game.getGameMode().name());
-                stmt.setString(6, game.getMoves());
-                stmt.setTimestamp(7, Timestamp.valueOf(game.getPlayedAt()));
-                
-                int affectedRows = stmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    throw new SQLException("Creating game failed, no rows affected.");
-                }
+            insert(conn, game);
+            return game;
+        } catch (SQLException e) {
+            logger.error("Error saving game", e);
+            throw new RuntimeException("Error saving game", e);
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
+        }
+    }
 
-                // Get the last inserted ID using SQLite's last_insert_rowid()
-                try (Statement idStmt = conn.createStatement();
-                     ResultSet rs = idStmt.executeQuery("SELECT last_insert_rowid()")) {
-                    if (rs.next()) {
-                        game.setId(rs.getLong(1));
-                        logger.info("Saved game with ID: {}", game.getId());
-                    } else {
-                        throw new SQLException("Creating game failed, no ID obtained.");
-                    }
-                }
-                
+    /**
+     * Saves a finished game and adds its outcome to both players' stats in
+     * one transaction. The counters are incremented by the database rather
+     * than written back from Java, so concurrent games of the same player
+     * never overwrite each other's results. Ratings are read and updated in
+     * the same transaction, on the single writer connection, so they are
+     * applied in commit order.
+     */
+    public GameEntity recordResult(GameEntity game) {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                insert(conn, game);
+                List<GameEntity> games = List.of(game);
+                double[] ratings = rateGames(conn, games);
+                PreparedStatement stmt = DatabaseConfig.prepare(conn, RECORD_OUTCOME_SQL);
+                bindRecordOutcome(stmt, game, ratings[0], ratings[1]);
+                stmt.executeUpdate();
+                conn.commit();
+                LeaderboardIndex.resultsCommitted(games);
+                PlayerCache.resultsCommitted(games);
                 return game;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            logger.error("Error saving game", e);
-            throw new RuntimeException("Error saving game", e);
+            logger.error("Error recording game result", e);
+            throw new RuntimeException("Error recording game result", e);
         } finally {
             if (conn != null) {
                 DatabaseConfig.releaseConnection(conn);
@@ -89,6 +131,132 @@ public class GameRepository {
         }
     }
 
+    /**
+     * Batched form of {@link #recordResult} that runs inside the caller's
+     * transaction. Generated ids are not read back.
+     */
+    public void recordResults(Connection conn, List<GameEntity> games) throws SQLException {
+        saveAll(conn, games);
+        double[] ratings = rateGames(conn, games);
+        PreparedStatement stmt = DatabaseConfig.prepare(conn, RECORD_OUTCOME_SQL);
+        try {
+            for (int i = 0; i < games.size(); i++) {
+                bindRecordOutcome(stmt, games.get(i), ratings[2 * i], ratings[2 * i + 1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } finally {
+            stmt.clearBatch();
+        }
+    }
+
+    private void insert(Connection conn, GameEntity game) throws SQLException {
+        PreparedStatement stmt = DatabaseConfig.prepare(conn, INSERT_RETURNING_ID_SQL);
+        bindInsert(stmt, game);
+
+        // The insert completes once the statement is reset, i.e. when the result set closes
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                game.setId(rs.getLong(1));
+            } else {
+                throw new SQLException("Creating game failed, no ID obtained.");
+            }
+        }
+        logger.info("Saved game with ID: {}", game.getId());
+    }
+
+    /**
+     * Both players' ratings after each game, replaying the games in order
+     * from the stored ratings: entries 2i and 2i + 1 belong to game i.
+     */
+    private double[] rateGames(Connection conn, List<GameEntity> games) throws SQLException {
+        Map<Long, Double> current = new HashMap<>();
+        double[] after = new double[games.size() * 2];
+        for (int i = 0; i < games.size(); i++) {
+            GameEntity game = games.get(i);
+            double rating1 = storedRating(conn, current, game.getPlayer1Id());
+            double rating2 = storedRating(conn, current, game.getPlayer2Id());
+            if (EloRating.isRated(game)) {
+                double score = EloRating.player1Score(game);
+                double updated1 = EloRating.updated(rating1, rating2, score);
+                rating2 = EloRating.updated(rating2, rating1, 1.0 - score);
+                rating1 = updated1;
+                current.put(game.getPlayer1Id(), rating1);
+                current.put(game.getPlayer2Id(), rating2);
+            }
+            after[2 * i] = rating1;
+            after[2 * i + 1] = rating2;
+        }
+        return after;
+    }
+
+    private double storedRating(Connection conn, Map<Long, Double> current, Long playerId) throws SQLException {
+        Double rating = current.get(playerId);
+        if (rating == null) {
+            PreparedStatement stmt = DatabaseConfig.prepare(conn, SELECT_RATING_SQL);
+            stmt.setLong(1, playerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rating = rs.next() ? rs.getDouble(1) : EloRating.INITIAL_RATING;
+            }
+            current.put(playerId, rating);
+        }
+        return rating;
+    }
+
+    private void bindRecordOutcome(PreparedStatement stmt, GameEntity game, double rating1, double rating2)
+            throws SQLException {
+        if (game.getWinnerId() != null) {
+            stmt.setLong(1, game.getWinnerId());
+            stmt.setLong(2, game.getWinnerId());
+        } else {
+            stmt.setNull(1, java.sql.Types.INTEGER);
+            stmt.setNull(2, java.sql.Types.INTEGER);
+        }
+        stmt.setInt(3, game.isDraw() ? 1 : 0);
+        stmt.setLong(4, game.getPlayer1Id());
+        stmt.setDouble(5, rating1);
+        stmt.setDouble(6, rating2);
+        stmt.setLong(7, game.getPlayer1Id());
+        stmt.setLong(8, game.getPlayer2Id());
+    }
+
+    /**
+     * Inserts the games with one batched statement inside the caller's
+     * transaction. Generated ids are not read back.
+     */
+    public void saveAll(Connection conn, List<GameEntity> games) throws SQLException {
+        PreparedStatement stmt = DatabaseConfig.prepare(conn, INSERT_SQL);
+        try {
+            for (GameEntity game : games) {
+                bindInsert(stmt, game);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } finally {
+            stmt.clearBatch();
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, GameEntity game) throws SQLException {
+        stmt.setLong(1, game.getPlayer1Id());
+        stmt.setLong(2, game.getPlayer2Id());
+        if (game.getWinnerId() != null) {
+            stmt.setLong(3, game.getWinnerId());
+        } else {
+            stmt.setNull(3, java.sql.Types.INTEGER);
+        }
+        stmt.setBoolean(4, game.isDraw());
+        stmt.setString(5, game.getGameMode().name());
+        byte[] moves = game.getEncodedMoves();
+        if (moves != null) {
+            stmt.setBytes(6, moves);
+        } else {
+            // Not in the move notation, so kept as the text it was given as
+            stmt.setString(6, game.getMoves());
+        }
+        stmt.setLong(7, toEpochMillis(game.getPlayedAt()));
+    }
+
     public List<GameEntity> findRecentGames(int limit) {
         String sql = """
             SELECT g.*, 
@@ -104,12 +272,13 @@ public class GameRepository {
         """;
 
         List<GameEntity> games = new ArrayList<>();
+        Connection conn = null;
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
+        try {
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn, sql);
             pstmt.setInt(1, limit);
-            
+
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     GameEntity game = mapResultSetToGame(rs);
@@ -122,6 +291,10 @@ public class GameRepository {
         } catch (SQLException e) {
             logger.error("Error finding recent games", e);
             throw new RuntimeException("Error finding recent games", e);
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
         }
     }
 
@@ -138,8 +311,8 @@ public class GameRepository {
         
         game.setDraw(rs.getBoolean("is_draw"));
         game.setGameMode(GameMode.valueOf(rs.getString("game_mode")));
-        game.setMoves(rs.getString("moves"));
-        game.setPlayedAt(rs.getTimestamp("played_at").toLocalDateTime());
+        setStoredMoves(game, rs.getObject("moves"));
+        game.setPlayedAt(fromEpochMillis(rs.getLong("played_at")));
         
         // Set player names if available in result set
         try {
@@ -160,11 +333,13 @@ public class GameRepository {
             WHERE id = ?
         """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn, sql);
             pstmt.setLong(1, id);
-            
+
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     GameEntity game = new GameEntity();
@@ -173,8 +348,8 @@ public class GameRepository {
                     game.setPlayer2Id(rs.getLong("player2_id"));
                     game.setWinnerId(rs.getObject("winner_id", Long.class));
                     game.setDraw(rs.getBoolean("is_draw"));
-                    game.setMoves(rs.getString("moves"));
-                    game.setPlayedAt(rs.getTimestamp("played_at").toLocalDateTime());
+                    setStoredMoves(game, rs.getObject("moves"));
+                    game.setPlayedAt(fromEpochMillis(rs.getLong("played_at")));
                     return Optional.of(game);
                 }
             }
@@ -183,30 +358,53 @@ public class GameRepository {
         } catch (SQLException e) {
             logger.error("Error finding game by ID: {}", id, e);
             throw new RuntimeException("Error finding game by ID: " + id, e);
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
         }
     }
 
-    public List<GameEntity> findGamesByPlayer(Long playerId) {
-        String sql = "SELECT * FROM games WHERE player1_id = ? OR player2_id = ? ORDER BY played_at DESC";
-        List<GameEntity> games = new ArrayList<>();
+    /**
+     * Up to {@code limit} of the player's games, newest first, starting
+     * after the cursor, or with the latest game if it is null. Each branch
+     * seeks the player's (player_id, played_at) index to the cursor and
+     * reads at most one page from it, so a page costs the same wherever it
+     * is in a long history.
+     */
+    public GameHistoryPage findGamesByPlayer(Long playerId, GameHistoryPage.Cursor after, int limit) {
+        List<GameEntity> games = new ArrayList<>(limit + 1);
         Connection conn = null;
-        
-        try {
-            conn = DatabaseConfig.getConnection();
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setLong(1, playerId);
-                pstmt.setLong(2, playerId);
-                ResultSet rs = pstmt.executeQuery();
 
+        try {
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn,
+                    after == null ? FIRST_HISTORY_PAGE_SQL : NEXT_HISTORY_PAGE_SQL);
+            // One extra row tells whether another page follows
+            int rows = limit + 1;
+            int index = 1;
+            pstmt.setLong(index++, playerId);
+            index = bindHistoryCursor(pstmt, index, after);
+            pstmt.setInt(index++, rows);
+            pstmt.setLong(index++, playerId);
+            pstmt.setLong(index++, playerId);
+            index = bindHistoryCursor(pstmt, index, after);
+            pstmt.setInt(index++, rows);
+            pstmt.setInt(index, rows);
+            pstmt.setFetchSize(rows);
+            try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     games.add(mapResultSetToGame(rs));
                 }
-                
-                logger.info("Found {} games for player {}", games.size(), playerId);
-                return games;
             }
+
+            if (games.size() > limit) {
+                games.remove(limit);
+                return new GameHistoryPage(games, GameHistoryPage.Cursor.after(games.get(limit - 1)));
+            }
+            return new GameHistoryPage(games, null);
         } catch (SQLException e) {
-            logger.error("Error finding games for player: {}", playerId, e);
+            logger.error("Error finding games for player {} after {}", playerId, after, e);
             throw new RuntimeException("Error finding games", e);
         } finally {
             if (conn != null) {
@@ -214,4 +412,78 @@ public class GameRepository {
             }
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * All of the player's games, newest first, fetched lazily one page at a
+     * time as the stream is consumed. A connection is only borrowed while a
+     * page is read, so a slow consumer never holds one, and at most one
+     * page of games is in memory at a time.
+     */
+    public Stream<GameEntity> streamGamesByPlayer(Long playerId) {
+        Spliterator<GameEntity> pages = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<GameEntity> current = Collections.emptyIterator();
+            private GameHistoryPage.Cursor next;
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super GameEntity> action) {
+                while (!current.hasNext()) {
+                    if (exhausted) {
+                        return false;
+                    }
+                    GameHistoryPage page = findGamesByPlayer(playerId, next, HISTORY_STREAM_PAGE_SIZE);
+                    current = page.getGames().iterator();
+                    next = page.getNext().orElse(null);
+                    exhausted = next == null;
+                }
+                action.accept(current.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    private int bindHistoryCursor(PreparedStatement pstmt, int index, GameHistoryPage.Cursor after)
+            throws SQLException {
+        if (after == null) {
+            return index;
+        }
+        pstmt.setLong(index++, after.getPlayedAt());
+        pstmt.setLong(index++, after.getId());
+        return index;
+    }
+
+    /**
+     * Sets the moves as read from the moves column: a {@link MoveCodec}
+     * BLOB, decoded only when the text is asked for, or text for games
+     * that are not in the move notation.
+     */
+    static void setStoredMoves(GameEntity game, Object moves) {
+        if (moves instanceof byte[]) {
+            game.setEncodedMoves((byte[]) moves);
+        } else {
+            game.setMoves((String) moves);
+        }
+    }
+
+    /**
+     * Text form of a value read from the moves column.
+     */
+    static String movesText(Object moves) {
+        return moves instanceof byte[] ? MoveCodec.decode((byte[]) moves) : (String) moves;
+    }
+
+    /**
+     * played_at is stored as epoch millis of the local date-time in the
+     * JVM's zone, the value {@link Timestamp#getTime()} gives, which is
+     * what setTimestamp wrote before the column was bound as a long.
+     */
+    static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+}
@@ -0,0 +1,273 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.GameEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue for finished games. Callers hand over a game and return
+ * immediately; a single writer thread drains the queue and records
+ * everything it finds, up to a batch limit, in one transaction.
+ *
+ * <p>In autocommit mode every game costs three statements and as many disk
+ * syncs. Grouping many games per commit amortizes the sync, and moving the
+ * work off the caller keeps the UI responsive when a game ends.</p>
+ *
+ * <p>The queue is bounded: when the writer falls behind, {@link #submit}
+ * blocks until there is room again. {@link #flush} waits until everything
+ * submitted so far is committed, and {@link #close} drains the queue before
+ * stopping the writer.</p>
+ *
+ * <p>If a batch fails, its games are retried one transaction each, so a
+ * single bad game only loses itself.</p>
+ */
+public class GameResultWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameResultWriter.class);
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 256;
+    private static final long POLL_MILLIS = 100;
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private static GameResultWriter defaultWriter;
+
+    private final GameRepository gameRepository;
+    private final BlockingQueue<GameEntity> queue;
+    private final int maxBatch;
+    private final Thread writer;
+    private final Object progress = new Object();
+    // Submits hold the read lock while queueing, so close() cannot stop the writer under them
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+    // Guarded by progress
+    private long submitted;
+    private long completed;
+    private long committed;
+    private long failed;
+    private long batches;
+
+    public GameResultWriter(GameRepository gameRepository, int capacity, int maxBatch) {
+        this.gameRepository = gameRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::drain, "game-result-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public GameResultWriter(GameRepository gameRepository) {
+        this(gameRepository, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * The writer shared by the application's games, created on first use.
+     */
+    public static synchronized GameResultWriter getDefault() {
+        if (defaultWriter == null) {
+            defaultWriter = new GameResultWriter(new GameRepository());
+        }
+        return defaultWriter;
+    }
+
+    /**
+     * Commits everything still queued on the shared writer and stops it.
+     * Does nothing if the shared writer was never used.
+     */
+    public static synchronized void closeDefault() {
+        if (defaultWriter != null) {
+            defaultWriter.close();
+            defaultWriter = null;
+        }
+    }
+
+    /**
+     * Queues a finished game to be recorded with
+     * {@link GameRepository#recordResults}, blocking while the queue is full.
+     */
+    public void submit(GameEntity result) {
+        lifecycle.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Game result writer is closed");
+            }
+            synchronized (progress) {
+                submitted++;
+            }
+            if (!queue.offer(result)) {
+                logger.warn("Game result queue is full, waiting for the writer");
+                queue.put(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (progress) {
+                submitted--;
+            }
+            throw new IllegalStateException("Interrupted while queueing game result", e);
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until every result submitted before this call has been written
+     * or has failed.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            long target = submitted;
+            while (completed < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+            }
+            return true;
+        }
+    }
+
+    private void drain() {
+        List<GameEntity> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                GameEntity first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                int written = writeBatch(batch);
+                synchronized (progress) {
+                    completed += batch.size();
+                    committed += written;
+                    failed += batch.size() - written;
+                    progress.notifyAll();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                // close() interrupts only after the queue has been drained or timed out
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction or, if that fails, each game in
+     * its own.
+     *
+     * @return the number of games written
+     */
+    private int writeBatch(List<GameEntity> batch) {
+        if (write(batch)) {
+            return batch.size();
+        }
+        if (batch.size() == 1) {
+            return 0;
+        }
+        logger.warn("Retrying {} game results one at a time", batch.size());
+        int written = 0;
+        for (GameEntity game : batch) {
+            if (write(List.of(game))) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private boolean write(List<GameEntity> batch) {
+        Connection conn = null;
+        try {
+            conn = DatabaseConfig.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                gameRepository.recordResults(conn, batch);
+                conn.commit();
+                LeaderboardIndex.resultsCommitted(batch);
+                PlayerCache.resultsCommitted(batch);
+                synchronized (progress) {
+                    batches++;
+                }
+                logger.debug("Committed {} game results in one transaction", batch.size());
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error writing {} game results", batch.size(), e);
+            return false;
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
+        }
+    }
+
+    public long getCommitted() {
+        synchronized (progress) {
+            return committed;
+        }
+    }
+
+    public long getFailed() {
+        synchronized (progress) {
+            return failed;
+        }
+    }
+
+    public long getBatches() {
+        synchronized (progress) {
+            return batches;
+        }
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting results, commits everything queued and stops the
+     * writer thread.
+     */
+    @Override
+    public void close() {
+        // Waits for submits in progress, which the writer is still draining, and turns away later ones
+        lifecycle.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        try {
+            writer.join(CLOSE_TIMEOUT.toMillis());
+            if (writer.isAlive()) {
+                logger.error("Game result writer did not finish within {}, {} results lost",
+                        CLOSE_TIMEOUT, queue.size());
+                writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Game result writer stopped: {} results committed in {} transactions, {} failed",
+                getCommitted(), getBatches(), getFailed());
+    }
+}
@@ -0,0 +1,585 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.GameEntity;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.util.EloRating;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, always sorted view of every player's standing. It is loaded
+ * from the database once and then kept current by the repositories, which
+ * report each created player and each committed game result.
+ *
+ * <p>Every sort order is kept in its own order-statistic tree (a treap
+ * whose nodes count their subtree), so top-N, the rank of a player and the
+ * players around a rank all cost O(log n) plus the size of the answer,
+ * without touching SQLite.</p>
+ *
+ * <p>The index is loaded and updated while holding the single writer
+ * connection. A result committed before loading starts is therefore part
+ * of the loaded rows, and every later result reaches the index, exactly
+ * once, before its writer releases the connection.</p>
+ *
+ * <p>Results committed by another process, such as an archive import, do
+ * not pass through the repositories. The default index is dropped as soon
+ * as {@link DatabaseConfig} notices such a commit, and loaded again on next
+ * use.</p>
+ */
+public final class LeaderboardIndex {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardIndex.class);
+
+    public enum SortOrder {
+        WINS(Comparator.comparingInt(Standing::getWins).reversed()
+                .thenComparing(LeaderboardIndex::compareWinRate)),
+        WIN_RATE(((Comparator<Standing>) LeaderboardIndex::compareWinRate)
+                .thenComparing(Comparator.comparingInt(Standing::getWins).reversed())),
+        RATING(Comparator.comparingDouble(Standing::getRating).reversed()
+                .thenComparing(Comparator.comparingInt(Standing::getWins).reversed()));
+
+        // Ties are broken by id so that every player has exactly one position
+        final Comparator<Standing> order;
+
+        SortOrder(Comparator<Standing> order) {
+            this.order = order.thenComparingLong(Standing::getId);
+        }
+    }
+
+    private static volatile LeaderboardIndex defaultIndex;
+    // Registered with the first load, so that indexes built without a database never touch it
+    private static boolean invalidatedByExternalWrites;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final Map<SortOrder, OrderTree> trees = new EnumMap<>(SortOrder.class);
+
+    LeaderboardIndex() {
+        for (SortOrder order : SortOrder.values()) {
+            trees.put(order, new OrderTree(order.order));
+        }
+    }
+
+    /**
+     * The index over the application database, loaded on first use.
+     */
+    public static LeaderboardIndex getDefault() {
+        LeaderboardIndex index = defaultIndex;
+        if (index == null) {
+            synchronized (LeaderboardIndex.class) {
+                index = defaultIndex;
+                if (index == null) {
+                    // Returned directly, as the default may already have been dropped again
+                    index = load();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drops the default index after another process wrote to the database.
+     * Called while holding the writer connection, so it cannot reload here.
+     */
+    private static void invalidate() {
+        if (defaultIndex != null) {
+            defaultIndex = null;
+            logger.info("Leaderboard index dropped after an external database write");
+        }
+    }
+
+    /**
+     * Loads the index and publishes it as the default before the writer
+     * connection is released, so no result can commit in between unseen.
+     */
+    private static LeaderboardIndex load() {
+        if (!invalidatedByExternalWrites) {
+            DatabaseConfig.addExternalWriteListener(LeaderboardIndex::invalidate);
+            invalidatedByExternalWrites = true;
+        }
+        long start = System.nanoTime();
+        LeaderboardIndex index = new LeaderboardIndex();
+        Connection conn = null;
+        try {
+            // Holding the writer keeps results from committing while the players are read
+            conn = DatabaseConfig.getConnection();
+            new PlayerRepository().forEachPlayer(conn, index::add);
+            index.rebuild();
+            defaultIndex = index;
+        } catch (SQLException e) {
+            logger.error("Error loading leaderboard", e);
+            throw new RuntimeException("Error loading leaderboard", e);
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
+        }
+        logger.info("Loaded leaderboard index with {} players in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Called by the repositories, while holding the writer connection,
+     * after a player row was inserted or overwritten.
+     */
+    static void playerSaved(PlayerEntity player) {
+        LeaderboardIndex index = defaultIndex;
+        if (index != null) {
+            index.put(player);
+        }
+    }
+
+    /**
+     * Called by the repositories, while holding the writer connection,
+     * after game results with their stat increments and rating updates
+     * were committed.
+     */
+    static void resultsCommitted(List<GameEntity> games) {
+        LeaderboardIndex index = defaultIndex;
+        if (index != null) {
+            index.apply(games);
+        }
+    }
+
+    /**
+     * Called, while holding the writer connection, after all ratings were
+     * recomputed and committed.
+     */
+    static void ratingsReplaced(Map<Long, Double> ratings) {
+        LeaderboardIndex index = defaultIndex;
+        if (index != null) {
+            index.replaceRatings(ratings);
+        }
+    }
+
+    // Only while loading: the trees are built in one go by rebuild()
+    private void add(PlayerEntity player) {
+        Standing standing = standingOf(player);
+        standings.put(standing.id, standing);
+    }
+
+    private void rebuild() {
+        for (Map.Entry<SortOrder, OrderTree> entry : trees.entrySet()) {
+            List<Standing> sorted = new ArrayList<>(standings.values());
+            sorted.sort(entry.getKey().order);
+            entry.getValue().build(sorted);
+        }
+    }
+
+    void put(PlayerEntity player) {
+        Standing standing = standingOf(player);
+        lock.writeLock().lock();
+        try {
+            Standing previous = standings.get(standing.id);
+            if (previous != null) {
+                // Saving a player never writes the rating column, only game results do
+                standing = standing.withRating(previous.rating);
+            }
+            replace(previous, standing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the outcome of each game to both players' standings, mirroring
+     * the increments and rating updates {@link GameRepository} makes.
+     */
+    void apply(List<GameEntity> games) {
+        lock.writeLock().lock();
+        try {
+            for (GameEntity game : games) {
+                Standing player1 = standings.get(game.getPlayer1Id());
+                Standing player2 = standings.get(game.getPlayer2Id());
+                if (player1 == null || player2 == null) {
+                    logger.warn("Game result for players {} and {} who are not all in the leaderboard index",
+                            game.getPlayer1Id(), game.getPlayer2Id());
+                    continue;
+                }
+                double rating1 = player1.rating;
+                double rating2 = player2.rating;
+                if (EloRating.isRated(game)) {
+                    double score = EloRating.player1Score(game);
+                    rating1 = EloRating.updated(player1.rating, player2.rating, score);
+                    rating2 = EloRating.updated(player2.rating, player1.rating, 1.0 - score);
+                }
+                replace(player1, withOutcome(player1, game).withRating(rating1));
+                if (player2 != player1) {
+                    replace(player2, withOutcome(player2, game).withRating(rating2));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Standing withOutcome(Standing current, GameEntity game) {
+        if (game.isDraw()) {
+            return current.with(current.wins, current.losses, current.draws + 1);
+        } else if (game.getWinnerId() == null) {
+            return current;
+        } else if (game.getWinnerId() == current.id) {
+            return current.with(current.wins + 1, current.losses, current.draws);
+        }
+        return current.with(current.wins, current.losses + 1, current.draws);
+    }
+
+    private void replaceRatings(Map<Long, Double> ratings) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Double> entry : ratings.entrySet()) {
+                Standing current = standings.get(entry.getKey());
+                if (current != null) {
+                    replace(current, current.withRating(entry.getValue()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(Standing previous, Standing next) {
+        for (OrderTree tree : trees.values()) {
+            if (previous != null) {
+                tree.remove(previous);
+            }
+            tree.insert(next);
+        }
+        standings.put(next.id, next);
+    }
+
+    /**
+     * The first {@code limit} players in the given order.
+     */
+    public List<PlayerEntity> top(SortOrder order, int limit) {
+        return range(order, 0, limit);
+    }
+
+    /**
+     * Up to {@code count} players starting at the zero-based position
+     * {@code from}.
+     */
+    public List<PlayerEntity> range(SortOrder order, int from, int count) {
+        lock.readLock().lock();
+        try {
+            List<Standing> found = new ArrayList<>(Math.max(0, Math.min(count, standings.size() - from)));
+            trees.get(order).collect(from, from + count, found);
+            List<PlayerEntity> players = new ArrayList<>(found.size());
+            for (Standing standing : found) {
+                players.add(standing.toPlayer());
+            }
+            return players;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One-based rank of the player, or empty if the player is unknown.
+     */
+    public OptionalInt rankOf(long playerId, SortOrder order) {
+        lock.readLock().lock();
+        try {
+            Standing standing = standings.get(playerId);
+            return standing == null ? OptionalInt.empty() : OptionalInt.of(trees.get(order).rank(standing) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The player together with up to {@code radius} players ranked directly
+     * above and below, in rank order. Empty if the player is unknown.
+     */
+    public List<PlayerEntity> around(long playerId, SortOrder order, int radius) {
+        lock.readLock().lock();
+        try {
+            Standing standing = standings.get(playerId);
+            if (standing == null) {
+                return List.of();
+            }
+            int position = trees.get(order).rank(standing);
+            int from = Math.max(0, position - radius);
+            return range(order, from, position + radius + 1 - from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return standings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Standing standingOf(PlayerEntity player) {
+        return new Standing(player.getId(), player.getName(), player.getWins(),
+                player.getLosses(), player.getDraws(), player.getRating(), player.getCreatedAt());
+    }
+
+    // Compares wins / games across players without rounding; higher rates first
+    private static int compareWinRate(Standing a, Standing b) {
+        return Long.compare((long) b.wins * a.getTotalGames(), (long) a.wins * b.getTotalGames());
+    }
+
+    static final class Standing {
+        final long id;
+        final String name;
+        final int wins;
+        final int losses;
+        final int draws;
+        final double rating;
+        final LocalDateTime createdAt;
+
+        Standing(long id, String name, int wins, int losses, int draws, double rating, LocalDateTime createdAt) {
+            this.id = id;
+            this.name = name;
+            this.wins = wins;
+            this.losses = losses;
+            this.draws = draws;
+            this.rating = rating;
+            this.createdAt = createdAt;
+        }
+
+        Standing with(int wins, int losses, int draws) {
+            return new Standing(id, name, wins, losses, draws, rating, createdAt);
+        }
+
+        Standing withRating(double rating) {
+            return new Standing(id, name, wins, losses, draws, rating, createdAt);
+        }
+
+        long getId() {
+            return id;
+        }
+
+        int getWins() {
+            return wins;
+        }
+
+        double getRating() {
+            return rating;
+        }
+
+        int getTotalGames() {
+            return wins + losses + draws;
+        }
+
+        PlayerEntity toPlayer() {
+            PlayerEntity player = new PlayerEntity(name);
+            player.setId(id);
+            player.setWins(wins);
+            player.setLosses(losses);
+            player.setDraws(draws);
+            player.setRating(rating);
+            player.setCreatedAt(createdAt);
+            return player;
+        }
+    }
+
+    /**
+     * Treap ordered by a total order on standings. Random priorities keep
+     * it balanced in expectation; subtree sizes give positions.
+     */
+    static final class OrderTree {
+        private final Comparator<Standing> order;
+        private Node root;
+
+        OrderTree(Comparator<Standing> order) {
+            this.order = order;
+        }
+
+        /**
+         * Replaces the tree with the given standings, already in order, in
+         * linear time: each new node becomes the right spine's child below
+         * the last node with a higher priority.
+         */
+        void build(List<Standing> sorted) {
+            Deque<Node> spine = new ArrayDeque<>();
+            for (Standing standing : sorted) {
+                Node node = new Node(standing, ThreadLocalRandom.current().nextInt());
+                Node lower = null;
+                while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                    lower = spine.pop();
+                }
+                node.left = lower;
+                if (!spine.isEmpty()) {
+                    spine.peek().right = node;
+                }
+                spine.push(node);
+            }
+            root = spine.peekLast();
+            updateSizes(root);
+        }
+
+        private static int updateSizes(Node node) {
+            if (node == null) {
+                return 0;
+            }
+            node.size = 1 + updateSizes(node.left) + updateSizes(node.right);
+            return node.size;
+        }
+
+        void insert(Standing standing) {
+            root = insert(root, new Node(standing, ThreadLocalRandom.current().nextInt()));
+        }
+
+        private Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (added.priority > node.priority) {
+                split(node, added.standing, added);
+                added.update();
+                return added;
+            }
+            if (order.compare(added.standing, node.standing) < 0) {
+                node.left = insert(node.left, added);
+            } else {
+                node.right = insert(node.right, added);
+            }
+            node.update();
+            return node;
+        }
+
+        // Puts the nodes ordered before the key under parent.left and the rest under parent.right
+        private void split(Node node, Standing key, Node parent) {
+            if (node == null) {
+                parent.left = null;
+                parent.right = null;
+                return;
+            }
+            if (order.compare(node.standing, key) < 0) {
+                split(node.right, key, parent);
+                node.right = parent.left;
+                node.update();
+                parent.left = node;
+            } else {
+                split(node.left, key, parent);
+                node.left = parent.right;
+                node.update();
+                parent.right = node;
+            }
+        }
+
+        void remove(Standing standing) {
+            root = remove(root, standing);
+        }
+
+        private Node remove(Node node, Standing standing) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = order.compare(standing, node.standing);
+            if (cmp == 0) {
+                return merge(node.left, node.right);
+            }
+            if (cmp < 0) {
+                node.left = remove(node.left, standing);
+            } else {
+                node.right = remove(node.right, standing);
+            }
+            node.update();
+            return node;
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                left.update();
+                return left;
+            }
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+
+        /**
+         * Zero-based position of a standing that is in the tree.
+         */
+        int rank(Standing standing) {
+            int before = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = order.compare(standing, node.standing);
+                if (cmp == 0) {
+                    return before + Node.size(node.left);
+                }
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    before += Node.size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            throw new IllegalStateException("Standing is not in the leaderboard: " + standing.id);
+        }
+
+        void collect(int from, int to, List<Standing> out) {
+            collect(root, 0, from, to, out);
+        }
+
+        private static void collect(Node node, int offset, int from, int to, List<Standing> out) {
+            if (node == null) {
+                return;
+            }
+            int position = offset + Node.size(node.left);
+            if (from < position) {
+                collect(node.left, offset, from, to, out);
+            }
+            if (position >= from && position < to) {
+                out.add(node.standing);
+            }
+            if (position + 1 < to) {
+                collect(node.right, position + 1, from, to, out);
+            }
+        }
+    }
+
+    private static final class Node {
+        final Standing standing;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(Standing standing, int priority) {
+            this.standing = standing;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + size(left) + size(right);
+        }
+
+        static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.model.entity.GameEntity;
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.util.EloRating;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of player rows in front of {@link PlayerRepository},
+ * indexed by id and by name, evicting the least recently used player once
+ * it holds {@code tictactoe.players.cacheSize} entries (default 10000).
+ *
+ * <p>Like {@link LeaderboardIndex}, it is kept current by the repositories
+ * rather than by expiry: every saved player and every committed game result
+ * of this process is written through while the writer connection is still
+ * held. Writes by other processes cannot be followed that way, so the whole
+ * cache is cleared when {@link DatabaseConfig} notices one, which it does
+ * before the next write of this process and within
+ * {@code tictactoe.db.externalWriteCheckMs} otherwise. Rows read on a
+ * read-only connection are only cached if no write was reported while they
+ * were read, since the
+ * read may have seen the row just before a commit whose update found
+ * nothing to change in the cache.</p>
+ *
+ * <p>Callers always get their own copy, so changing a returned player never
+ * changes the cache.</p>
+ */
+public final class PlayerCache {
+    private static final int CAPACITY = Math.max(1, Integer.getInteger("tictactoe.players.cacheSize", 10_000));
+    private static final PlayerCache DEFAULT = new PlayerCache(CAPACITY);
+
+    static {
+        DatabaseConfig.addExternalWriteListener(DEFAULT::clear);
+    }
+
+    private final int capacity;
+    private final Map<String, PlayerEntity> byName = new HashMap<>();
+    // Access ordered, so it also keeps the eviction order for both indexes
+    private final LinkedHashMap<Long, PlayerEntity> byId;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // Bumped by every write-through; see snapshot()
+    private long writes;
+
+    PlayerCache(int capacity) {
+        this.capacity = capacity;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PlayerEntity> eldest) {
+                if (size() <= PlayerCache.this.capacity) {
+                    return false;
+                }
+                byName.remove(eldest.getValue().getName());
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public static PlayerCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Called by the repositories, while holding the writer connection,
+     * after a player row was inserted, overwritten or read back.
+     */
+    static void playerSaved(PlayerEntity player) {
+        DEFAULT.written(player);
+    }
+
+    /**
+     * Called by the repositories, while holding the writer connection,
+     * after game results were committed. Mirrors the stat increments and
+     * rating updates of {@link GameRepository}.
+     */
+    static void resultsCommitted(List<GameEntity> games) {
+        DEFAULT.apply(games);
+    }
+
+    /**
+     * Called, while holding the writer connection, after all ratings were
+     * recomputed and committed.
+     */
+    static void ratingsReplaced(Map<Long, Double> ratings) {
+        DEFAULT.replaceRatings(ratings);
+    }
+
+    synchronized Optional<PlayerEntity> findByName(String name) {
+        PlayerEntity player = byName.get(name);
+        if (player == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        byId.get(player.getId()); // Marks it as recently used
+        return Optional.of(copyOf(player));
+    }
+
+    synchronized Optional<PlayerEntity> findById(long id) {
+        PlayerEntity player = byId.get(id);
+        if (player == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(copyOf(player));
+    }
+
+    /**
+     * Write-through counter to pass to {@link #loaded} after reading a
+     * player on a read-only connection. Taken before the read starts.
+     */
+    synchronized long snapshot() {
+        return writes;
+    }
+
+    /**
+     * Caches a player read on a read-only connection, unless a write was
+     * reported since {@code snapshot}: the row may then be older than the
+     * database.
+     */
+    synchronized void loaded(PlayerEntity player, long snapshot) {
+        if (writes == snapshot) {
+            put(copyOf(player));
+        }
+    }
+
+    synchronized void written(PlayerEntity player) {
+        writes++;
+        put(copyOf(player));
+    }
+
+    synchronized void apply(List<GameEntity> games) {
+        writes++;
+        for (GameEntity game : games) {
+            PlayerEntity player1 = byId.get(game.getPlayer1Id());
+            PlayerEntity player2 = byId.get(game.getPlayer2Id());
+            if (player1 == null || player2 == null) {
+                // A rating update needs the opponent's rating, so a lone entry is dropped
+                remove(player1);
+                remove(player2);
+                continue;
+            }
+            double rating1 = player1.getRating();
+            double rating2 = player2.getRating();
+            if (EloRating.isRated(game)) {
+                double score = EloRating.player1Score(game);
+                player1.setRating(EloRating.updated(rating1, rating2, score));
+                player2.setRating(EloRating.updated(rating2, rating1, 1.0 - score));
+            }
+            addOutcome(player1, game);
+            if (player2 != player1) {
+                addOutcome(player2, game);
+            }
+        }
+    }
+
+    synchronized void replaceRatings(Map<Long, Double> ratings) {
+        writes++;
+        for (PlayerEntity player : byId.values()) {
+            Double rating = ratings.get(player.getId());
+            if (rating != null) {
+                player.setRating(rating);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        writes++;
+        byId.clear();
+        byName.clear();
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (this) {
+            size = byId.size();
+        }
+        return new Stats(hits.get(), misses.get(), evictions.get(), size, capacity);
+    }
+
+    private void put(PlayerEntity player) {
+        PlayerEntity previous = byId.put(player.getId(), player);
+        if (previous != null && !previous.getName().equals(player.getName())) {
+            byName.remove(previous.getName());
+        }
+        byName.put(player.getName(), player);
+    }
+
+    private void remove(PlayerEntity player) {
+        if (player != null) {
+            byId.remove(player.getId());
+            byName.remove(player.getName());
+        }
+    }
+
+    private static void addOutcome(PlayerEntity player, GameEntity game) {
+        if (game.isDraw()) {
+            player.incrementDraws();
+        } else if (game.getWinnerId() == null) {
+            return;
+        } else if (game.getWinnerId().equals(player.getId())) {
+            player.incrementWins();
+        } else {
+            player.incrementLosses();
+        }
+    }
+
+    private static PlayerEntity copyOf(PlayerEntity player) {
+        PlayerEntity copy = new PlayerEntity(player.getName());
+        copy.setId(player.getId());
+        copy.setWins(player.getWins());
+        copy.setLosses(player.getLosses());
+        copy.setDraws(player.getDraws());
+        copy.setRating(player.getRating());
+        copy.setCreatedAt(player.getCreatedAt());
+        return copy;
+    }
+
+    /**
+     * Point-in-time snapshot of the cache's counters.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int capacity;
+
+        Stats(long hits, long misses, long evictions, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups > 0 ? (double) hits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d players, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                    size, capacity, hits, misses, getHitRate() * 100, evictions);
+        }
+    }
+}
@@ -10,9 +10,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class PlayerRepository {
     private static final Logger logger = LoggerFactory.getLogger(PlayerRepository.class);
+    private static final String UPDATE_SQL = "UPDATE players SET name = ?, wins = ?, losses = ?, draws = ? WHERE id = ?";
+    // The no-op update makes RETURNING produce the existing row as well as a new one
+    private static final String UPSERT_SQL =
+            "INSERT INTO players (name) VALUES (?) ON CONFLICT (name) DO UPDATE SET name = excluded.name RETURNING *";
+    private final PlayerCache cache = PlayerCache.getDefault();
 
     public PlayerEntity save(PlayerEntity player) {
         if (player.getId() == null) {
@@ -23,36 +29,29 @@ public class PlayerRepository {
     }
 
     private PlayerEntity insert(PlayerEntity player) {
-        String sql = "INSERT INTO players (name, wins, losses, draws) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO players (name, wins, losses, draws) VALUES (?, ?, ?, ?) RETURNING id";
         Connection conn = null;
         
         try {
             conn = DatabaseConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, player.getName());
-                stmt.setInt(2, player.getWins());
-                stmt.setInt(3, player.getLosses());
-                stmt.setInt(4, player.getDraws());
-                
-                int affectedRows = stmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    throw new SQLException("Creating player failed, no rows affected.");
-                }
+            PreparedStatement stmt = DatabaseConfig.prepare(conn, sql);
+            stmt.setString(1, player.getName());
+            stmt.setInt(2, player.getWins());
+            stmt.setInt(3, player.getLosses());
+            stmt.setInt(4, player.getDraws());
 
-                // Get the last inserted ID using SQLite's last_insert_rowid()
-                try (Statement idStmt = conn.createStatement();
-                     ResultSet rs = idStmt.executeQuery("SELECT last_insert_rowid()")) {
-                    if (rs.next()) {
-                        player.setId(rs.getLong(1));
-                        logger.info("Successfully saved player: {} with ID: {}", player.getName(), player.getId());
-                    } else {
-                        throw new SQLException("Creating player failed, no ID obtained.");
-                    }
+            // The insert commits once the statement is reset, i.e. when the result set closes
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    player.setId(rs.getLong(1));
+                } else {
+                    throw new SQLException("Creating player failed, no ID obtained.");
                 }
-                
-                return player;
             }
+            LeaderboardIndex.playerSaved(player);
+            PlayerCache.playerSaved(player);
+            logger.info("Successfully saved player: {} with ID: {}", player.getName(), player.getId());
+            return player;
         } catch (SQLException e) {
             logger.error("Error saving player: {}", player.getName(), e);
             throw new RuntimeException("Error saving player", e);
@@ -64,22 +63,18 @@ public class PlayerRepository {
     }
 
     private PlayerEntity update(PlayerEntity player) {
-        String sql = "UPDATE players SET name = ?, wins = ?, losses = ?, draws = ? WHERE id = ?";
         Connection conn = null;
         
         try {
             conn = DatabaseConfig.getConnection();
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, player.getName());
-                stmt.setInt(2, player.getWins());
-                stmt.setInt(3, player.getLosses());
-                stmt.setInt(4, player.getDraws());
-                stmt.setLong(5, player.getId());
-                
-                stmt.executeUpdate();
-                logger.info("Successfully updated player: {}", player.getName());
-                return player;
-            }
+            PreparedStatement stmt = DatabaseConfig.prepare(conn, UPDATE_SQL);
+            bindUpdate(stmt, player);
+
+            stmt.executeUpdate();
+            LeaderboardIndex.playerSaved(player);
+            PlayerCache.playerSaved(player);
+            logger.info("Successfully updated player: {}", player.getName());
+            return player;
         } catch (SQLException e) {
             logger.error("Error updating player: {}", player.getId(), e);
             throw new RuntimeException("Error updating player", e);
@@ -90,22 +85,36 @@ public class PlayerRepository {
         }
     }
 
+    private void bindUpdate(PreparedStatement stmt, PlayerEntity player) throws SQLException {
+        stmt.setString(1, player.getName());
+        stmt.setInt(2, player.getWins());
+        stmt.setInt(3, player.getLosses());
+        stmt.setInt(4, player.getDraws());
+        stmt.setLong(5, player.getId());
+    }
+
     public Optional<PlayerEntity> findById(Long id) {
+        Optional<PlayerEntity> cached = cache.findById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
         String sql = "SELECT * FROM players WHERE id = ?";
+        long snapshot = cache.snapshot();
         Connection conn = null;
         
         try {
-            conn = DatabaseConfig.getConnection();
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setLong(1, id);
-                ResultSet rs = pstmt.executeQuery();
-
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn, sql);
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToPlayer(rs));
+                    PlayerEntity player = mapResultSetToPlayer(rs);
+                    cache.loaded(player, snapshot);
+                    return Optional.of(player);
                 }
-                
-                return Optional.empty();
             }
+
+            return Optional.empty();
         } catch (SQLException e) {
             logger.error("Error finding player by id: {}", id, e);
             throw new RuntimeException("Error finding player", e);
@@ -116,22 +125,68 @@ public class PlayerRepository {
         }
     }
 
+    /**
+     * Returns the player with the given name, creating it first if needed.
+     * Cached players are returned without touching the database; anyone
+     * else is resolved by a single upsert that returns the row whether it
+     * was just inserted or already existed, so it is safe to call
+     * concurrently for the same name.
+     */
+    public PlayerEntity findOrCreate(String name) {
+        Optional<PlayerEntity> cached = cache.findByName(name);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            PreparedStatement stmt = DatabaseConfig.prepare(conn, UPSERT_SQL);
+            stmt.setString(1, name);
+            PlayerEntity player;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Resolving player failed, no row returned.");
+                }
+                player = mapResultSetToPlayer(rs);
+            }
+            // Read on the writer, so the row is current; re-adding a known player changes nothing
+            LeaderboardIndex.playerSaved(player);
+            PlayerCache.playerSaved(player);
+            logger.info("Resolved player: {} with ID: {}", name, player.getId());
+            return player;
+        } catch (SQLException e) {
+            logger.error("Error resolving player: {}", name, e);
+            throw new RuntimeException("Error resolving player", e);
+        } finally {
+            if (conn != null) {
+                DatabaseConfig.releaseConnection(conn);
+            }
+        }
+    }
+
     public Optional<PlayerEntity> findByName(String name) {
+        Optional<PlayerEntity> cached = cache.findByName(name);
+        if (cached.isPresent()) {
+            return cached;
+        }
         String sql = "SELECT * FROM players WHERE name = ?";
+        long snapshot = cache.snapshot();
         Connection conn = null;
         
         try {
-            conn = DatabaseConfig.getConnection();
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, name);
-                ResultSet rs = pstmt.executeQuery();
-
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn, sql);
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToPlayer(rs));
+                    PlayerEntity player = mapResultSetToPlayer(rs);
+                    cache.loaded(player, snapshot);
+                    return Optional.of(player);
                 }
-                
-                return Optional.empty();
             }
+
+            return Optional.empty();
         } catch (SQLException e) {
             logger.error("Error finding player by name: {}", name, e);
             throw new RuntimeException("Error finding player", e);
@@ -148,17 +203,16 @@ public class PlayerRepository {
         Connection conn = null;
         
         try {
-            conn = DatabaseConfig.getConnection();
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, limit);
-                ResultSet rs = pstmt.executeQuery();
-
+            conn = DatabaseConfig.getReadConnection();
+            PreparedStatement pstmt = DatabaseConfig.prepare(conn, sql);
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     players.add(mapResultSetToPlayer(rs));
                 }
-                
-                return players;
             }
+
+            return players;
         } catch (SQLException e) {
             logger.error("Error finding top players", e);
             throw new RuntimeException("Error finding top players", e);
@@ -169,13 +223,28 @@ public class PlayerRepository {
         }
     }
 
-    private PlayerEntity mapResultSetToPlayer(ResultSet rs) throws SQLException {
+    /**
+     * Streams every player to the consumer, on the caller's connection.
+     */
+    void forEachPlayer(Connection conn, Consumer<PlayerEntity> consumer) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM players")) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToPlayer(rs));
+                }
+            }
+        }
+    }
+
+    static PlayerEntity mapResultSetToPlayer(ResultSet rs) throws SQLException {
         PlayerEntity player = new PlayerEntity();
         player.setId(rs.getLong("id"));
         player.setName(rs.getString("name"));
         player.setWins(rs.getInt("wins"));
         player.setLosses(rs.getInt("losses"));
         player.setDraws(rs.getInt("draws"));
+        player.setRating(rs.getDouble("rating"));
         player.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return player;
     }
@@ -0,0 +1,348 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.config.DatabaseConfig;
+import com.tictactoe.util.EloRating;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Recomputes every player's rating by replaying the whole games table in
+ * play order, e.g. after changing the rating formula or importing games.
+ *
+ * <p>Games are streamed, never loaded at once: a reader thread decodes rows
+ * into small chunks of player indexes and outcomes while the caller's
+ * thread rates them. Elo is order dependent, but consecutive games with
+ * four distinct players do not affect each other, so the stream is cut
+ * into runs of such independent games and large runs are rated in
+ * parallel. The result is identical to applying the games one by one,
+ * which is what recording a result does.</p>
+ *
+ * <p>The run is one {@code BEGIN IMMEDIATE} transaction on the writer
+ * connection, which holds SQLite's write lock for the whole database, so
+ * no process, not only this one, can commit a game between reading the
+ * games and storing the new ratings. Writers elsewhere wait for it up to
+ * their busy timeout.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.repository.RatingRecalculator}</p>
+ */
+public class RatingRecalculator {
+    private static final Logger logger = LoggerFactory.getLogger(RatingRecalculator.class);
+    private static final String SELECT_GAMES_SQL =
+            "SELECT player1_id, player2_id, winner_id, is_draw FROM games ORDER BY played_at, id";
+    private static final String UPDATE_RATING_SQL = "UPDATE players SET rating = ? WHERE id = ?";
+    private static final int CHUNK_GAMES = 4096;
+    private static final int QUEUED_CHUNKS = 16;
+    private static final int MAX_RUN = 4096;
+    // Below this a run is cheaper to rate on one thread than to fork
+    private static final int PARALLEL_RUN = 512;
+    private static final int[] END_OF_GAMES = new int[0];
+
+    // Outcome codes, from player 1's point of view
+    private static final int UNRATED = 0;
+    private static final int WIN = 1;
+    private static final int DRAW = 2;
+    private static final int LOSS = 3;
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            throw new IllegalArgumentException("Unknown option: " + args[0]);
+        }
+        try {
+            System.out.println(new RatingRecalculator().recalculate());
+        } finally {
+            DatabaseConfig.closeAllConnections();
+        }
+    }
+
+    public Result recalculate() {
+        long start = System.nanoTime();
+        Connection conn = null;
+        boolean inTransaction = false;
+        try {
+            conn = DatabaseConfig.getConnection();
+            // Issued directly, as the driver's own transactions start deferred and only lock on the first write
+            execute(conn, "BEGIN IMMEDIATE");
+            inTransaction = true;
+            Map<Long, Integer> playerIndexes = new HashMap<>();
+            List<Long> playerIds = new ArrayList<>();
+            new PlayerRepository().forEachPlayer(conn, player -> {
+                playerIndexes.put(player.getId(), playerIds.size());
+                playerIds.add(player.getId());
+            });
+
+            Replay replay = new Replay(playerIds.size());
+            GameReader reader = new GameReader(playerIndexes);
+            reader.start();
+            int[] chunk;
+            while ((chunk = reader.chunks.take()) != END_OF_GAMES) {
+                replay.add(chunk);
+            }
+            replay.finishRun();
+            reader.join();
+            if (reader.failure != null) {
+                throw reader.failure;
+            }
+            long rated = System.nanoTime();
+
+            Map<Long, Double> ratings = store(conn, playerIds, replay.ratings);
+            execute(conn, "COMMIT");
+            inTransaction = false;
+            LeaderboardIndex.ratingsReplaced(ratings);
+            PlayerCache.ratingsReplaced(ratings);
+
+            Result result = new Result(reader.games, replay.ratedGames, playerIds.size(), replay.runs,
+                    replay.parallelRuns, rated - start, System.nanoTime() - rated);
+            logger.info("Recalculated ratings: {}", result);
+            return result;
+        } catch (SQLException e) {
+            logger.error("Error recalculating ratings", e);
+            throw new RuntimeException("Error recalculating ratings", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recalculating ratings", e);
+        } finally {
+            if (conn != null) {
+                if (inTransaction) {
+                    rollback(conn);
+                }
+                DatabaseConfig.releaseConnection(conn);
+            }
+        }
+    }
+
+    private static Map<Long, Double> store(Connection conn, List<Long> playerIds, double[] ratings)
+            throws SQLException {
+        Map<Long, Double> stored = new HashMap<>();
+        PreparedStatement stmt = DatabaseConfig.prepare(conn, UPDATE_RATING_SQL);
+        try {
+            for (int i = 0; i < ratings.length; i++) {
+                stmt.setDouble(1, ratings[i]);
+                stmt.setLong(2, playerIds.get(i));
+                stmt.addBatch();
+                stored.put(playerIds.get(i), ratings[i]);
+            }
+            stmt.executeBatch();
+        } finally {
+            stmt.clearBatch();
+        }
+        return stored;
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try {
+            execute(conn, "ROLLBACK");
+        } catch (SQLException e) {
+            logger.error("Error rolling back rating recalculation", e);
+        }
+    }
+
+    /**
+     * Streams the games table on a read-only connection and hands it over
+     * in chunks of (player 1 index, player 2 index, outcome) triples.
+     */
+    private static final class GameReader extends Thread {
+        final BlockingQueue<int[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        final Map<Long, Integer> playerIndexes;
+        volatile SQLException failure;
+        volatile long games;
+
+        GameReader(Map<Long, Integer> playerIndexes) {
+            super("rating-game-reader");
+            setDaemon(true);
+            this.playerIndexes = playerIndexes;
+        }
+
+        @Override
+        public void run() {
+            Connection conn = null;
+            try {
+                conn = DatabaseConfig.getReadConnection();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setFetchSize(CHUNK_GAMES);
+                    try (ResultSet rs = stmt.executeQuery(SELECT_GAMES_SQL)) {
+                        int[] chunk = new int[CHUNK_GAMES * 3];
+                        int size = 0;
+                        long count = 0;
+                        while (rs.next()) {
+                            Integer player1 = playerIndexes.get(rs.getLong(1));
+                            Integer player2 = playerIndexes.get(rs.getLong(2));
+                            long winner = rs.getLong(3);
+                            boolean hasWinner = !rs.wasNull();
+                            boolean draw = rs.getBoolean(4);
+                            int outcome = UNRATED;
+                            if (player1 != null && player2 != null && !player1.equals(player2)) {
+                                if (draw) {
+                                    outcome = DRAW;
+                                } else if (hasWinner) {
+                                    outcome = player1.equals(playerIndexes.get(winner)) ? WIN : LOSS;
+                                }
+                            }
+                            count++;
+                            if (outcome == UNRATED) {
+                                continue;
+                            }
+                            chunk[size++] = player1;
+                            chunk[size++] = player2;
+                            chunk[size++] = outcome;
+                            if (size == chunk.length) {
+                                chunks.put(chunk);
+                                chunk = new int[CHUNK_GAMES * 3];
+                                size = 0;
+                            }
+                        }
+                        if (size > 0) {
+                            chunks.put(Arrays.copyOf(chunk, size));
+                        }
+                        games = count;
+                    }
+                }
+            } catch (SQLException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (conn != null) {
+                    DatabaseConfig.releaseConnection(conn);
+                }
+                try {
+                    chunks.put(END_OF_GAMES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies games in order, collecting them into runs in which no player
+     * appears twice. Such a run can be rated in any order, or in parallel.
+     */
+    private static final class Replay {
+        final double[] ratings;
+        // lastRun[p] == runNumber marks players already in the current run
+        final int[] lastRun;
+        final int[] runPlayer1 = new int[MAX_RUN];
+        final int[] runPlayer2 = new int[MAX_RUN];
+        final int[] runOutcome = new int[MAX_RUN];
+        int runSize;
+        int runNumber = 1;
+        long runs;
+        long parallelRuns;
+        long ratedGames;
+
+        Replay(int players) {
+            ratings = new double[players];
+            Arrays.fill(ratings, EloRating.INITIAL_RATING);
+            lastRun = new int[players];
+        }
+
+        void add(int[] chunk) {
+            for (int i = 0; i < chunk.length; i += 3) {
+                int player1 = chunk[i];
+                int player2 = chunk[i + 1];
+                if (lastRun[player1] == runNumber || lastRun[player2] == runNumber || runSize == MAX_RUN) {
+                    finishRun();
+                }
+                lastRun[player1] = runNumber;
+                lastRun[player2] = runNumber;
+                runPlayer1[runSize] = player1;
+                runPlayer2[runSize] = player2;
+                runOutcome[runSize] = chunk[i + 2];
+                runSize++;
+            }
+        }
+
+        void finishRun() {
+            if (runSize == 0) {
+                return;
+            }
+            if (runSize >= PARALLEL_RUN) {
+                IntStream.range(0, runSize).parallel().forEach(this::rate);
+                parallelRuns++;
+            } else {
+                for (int i = 0; i < runSize; i++) {
+                    rate(i);
+                }
+            }
+            ratedGames += runSize;
+            runs++;
+            runSize = 0;
+            runNumber++;
+        }
+
+        private void rate(int game) {
+            int player1 = runPlayer1[game];
+            int player2 = runPlayer2[game];
+            double score = runOutcome[game] == WIN ? 1.0 : runOutcome[game] == DRAW ? 0.5 : 0.0;
+            double rating1 = ratings[player1];
+            double rating2 = ratings[player2];
+            ratings[player1] = EloRating.updated(rating1, rating2, score);
+            ratings[player2] = EloRating.updated(rating2, rating1, 1.0 - score);
+        }
+    }
+
+    public static class Result {
+        private final long games;
+        private final long ratedGames;
+        private final int players;
+        private final long runs;
+        private final long parallelRuns;
+        private final long replayNanos;
+        private final long storeNanos;
+
+        Result(long games, long ratedGames, int players, long runs, long parallelRuns,
+               long replayNanos, long storeNanos) {
+            this.games = games;
+            this.ratedGames = ratedGames;
+            this.players = players;
+            this.runs = runs;
+            this.parallelRuns = parallelRuns;
+            this.replayNanos = replayNanos;
+            this.storeNanos = storeNanos;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getRatedGames() {
+            return ratedGames;
+        }
+
+        public int getPlayers() {
+            return players;
+        }
+
+        public double getGamesPerSecond() {
+            return replayNanos > 0 ? games * 1e9 / replayNanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games (%d rated) for %d players replayed in %.2f s (%.0f games/s), "
+                            + "%d independent runs (mean %.1f games, %d rated in parallel), ratings stored in %.2f s",
+                    games, ratedGames, players, replayNanos / 1e9, getGamesPerSecond(),
+                    runs, runs > 0 ? (double) ratedGames / runs : 0.0, parallelRuns, storeNanos / 1e9);
+        }
+    }
+}
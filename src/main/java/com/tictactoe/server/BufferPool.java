@@ -0,0 +1,45 @@
+package com.tictactoe.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Recycles fixed-size direct buffers so the event loop does not allocate
+ * per read or per response. Not thread-safe: each pool belongs to one event
+ * loop thread.
+ */
+final class BufferPool {
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private final int bufferSize;
+    private final int maxRetained;
+    private long allocated;
+
+    BufferPool(int bufferSize, int maxRetained) {
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        if (buffer == null) {
+            allocated++;
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < maxRetained) {
+            buffer.clear();
+            free.addFirst(buffer);
+        }
+    }
+
+    /**
+     * Total number of buffers ever allocated, a measure of how well the pool
+     * is being reused.
+     */
+    long getAllocated() {
+        return allocated;
+    }
+}
@@ -0,0 +1,173 @@
+package com.tictactoe.server;
+
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.model.enums.Player;
+import com.tictactoe.service.GameService;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary frame format spoken by {@link GameServer}.
+ *
+ * <p>Every frame is a big-endian {@code u16} length, counting the bytes that
+ * follow it, then a {@code u8} frame type and the payload:</p>
+ *
+ * <pre>
+ * Client to server
+ *   CREATE  0x01  mode:u8  player1Length:u8 player1:utf8  player2Length:u8 player2:utf8
+ *   MOVE    0x02  session:i64  row:u16  col:u16
+ *   STATE   0x03  session:i64
+ *   CLOSE   0x04  session:i64
+ *
+ * Server to client
+ *   GAME    0x81  session:i64  status:u8  rows:u8  cols:u8  cells:u8[rows * cols]
+ *   MOVED   0x82  session:i64  accepted:u8  status:u8
+ *   CLOSED  0x83  session:i64
+ *   ERROR   0xFF  code:u8
+ * </pre>
+ *
+ * <p>{@code status} packs the game result in the low two bits
+ * ({@link #RESULT_NONE}, {@link #RESULT_X}, {@link #RESULT_O},
+ * {@link #RESULT_DRAW}), {@link #STATUS_GAME_OVER} and, when the next move
+ * is O's, {@link #STATUS_O_TO_MOVE}. Cells are {@code 0} for empty,
+ * {@code 1} for X and {@code 2} for O, in row-major order.</p>
+ *
+ * <p>{@code mode} is one of the {@code MODE_*} codes, which are part of the
+ * protocol and never change with the declaration order of
+ * {@link GameMode}.</p>
+ */
+public final class GameProtocol {
+    public static final int HEADER_BYTES = 2;
+    // Large enough for a CREATE with two 255-byte names and a 15x15 GAME frame
+    public static final int MAX_FRAME_BYTES = 1024;
+
+    public static final byte CREATE = 0x01;
+    public static final byte MOVE = 0x02;
+    public static final byte STATE = 0x03;
+    public static final byte CLOSE = 0x04;
+
+    public static final byte GAME = (byte) 0x81;
+    public static final byte MOVED = (byte) 0x82;
+    public static final byte CLOSED = (byte) 0x83;
+    public static final byte ERROR = (byte) 0xFF;
+
+    public static final int RESULT_NONE = 0;
+    public static final int RESULT_X = 1;
+    public static final int RESULT_O = 2;
+    public static final int RESULT_DRAW = 3;
+    public static final int RESULT_MASK = 0x3;
+    public static final int STATUS_GAME_OVER = 0x4;
+    public static final int STATUS_O_TO_MOVE = 0x8;
+
+    public static final int MODE_CLASSIC = 0;
+    public static final int MODE_ENDLESS = 1;
+    public static final int MODE_FOUR_IN_A_ROW = 2;
+    public static final int MODE_GOMOKU = 3;
+    public static final int MODE_VS_AI = 4;
+    public static final int MODE_GOMOKU_VS_AI = 5;
+
+    public static final byte ERROR_MALFORMED = 1;
+    public static final byte ERROR_UNKNOWN_TYPE = 2;
+    public static final byte ERROR_NO_SESSION = 3;
+
+    public static final int MOVE_FRAME_BYTES = HEADER_BYTES + 1 + 8 + 2 + 2;
+    public static final int MOVED_FRAME_BYTES = HEADER_BYTES + 1 + 8 + 1 + 1;
+
+    private GameProtocol() {
+    }
+
+    public static int status(GameService game) {
+        int status;
+        switch (game.getGameResult()) {
+            case "X": status = RESULT_X; break;
+            case "O": status = RESULT_O; break;
+            case "DRAW": status = RESULT_DRAW; break;
+            default: status = RESULT_NONE; break;
+        }
+        if (game.isGameOver()) {
+            status |= STATUS_GAME_OVER;
+        }
+        if (game.getCurrentPlayer() == Player.O) {
+            status |= STATUS_O_TO_MOVE;
+        }
+        return status;
+    }
+
+    public static int modeCode(GameMode mode) {
+        switch (mode) {
+            case CLASSIC: return MODE_CLASSIC;
+            case ENDLESS: return MODE_ENDLESS;
+            case FOUR_IN_A_ROW: return MODE_FOUR_IN_A_ROW;
+            case GOMOKU: return MODE_GOMOKU;
+            case VS_AI: return MODE_VS_AI;
+            case GOMOKU_VS_AI: return MODE_GOMOKU_VS_AI;
+            default: throw new IllegalArgumentException("No protocol code for game mode " + mode);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the code is not a known mode
+     */
+    public static GameMode modeOf(int code) {
+        switch (code) {
+            case MODE_CLASSIC: return GameMode.CLASSIC;
+            case MODE_ENDLESS: return GameMode.ENDLESS;
+            case MODE_FOUR_IN_A_ROW: return GameMode.FOUR_IN_A_ROW;
+            case MODE_GOMOKU: return GameMode.GOMOKU;
+            case MODE_VS_AI: return GameMode.VS_AI;
+            case MODE_GOMOKU_VS_AI: return GameMode.GOMOKU_VS_AI;
+            default: throw new IllegalArgumentException("Unknown game mode code " + code);
+        }
+    }
+
+    public static void writeCreate(ByteBuffer out, GameMode mode, String player1Name, String player2Name) {
+        byte[] player1 = player1Name.getBytes(StandardCharsets.UTF_8);
+        byte[] player2 = player2Name.getBytes(StandardCharsets.UTF_8);
+        if (player1.length > 255 || player2.length > 255) {
+            throw new IllegalArgumentException("Player names are limited to 255 bytes");
+        }
+        out.putShort((short) (1 + 1 + 1 + player1.length + 1 + player2.length));
+        out.put(CREATE).put((byte) modeCode(mode));
+        out.put((byte) player1.length).put(player1);
+        out.put((byte) player2.length).put(player2);
+    }
+
+    public static void writeMove(ByteBuffer out, long sessionId, int row, int col) {
+        out.putShort((short) (MOVE_FRAME_BYTES - HEADER_BYTES));
+        out.put(MOVE).putLong(sessionId).putShort((short) row).putShort((short) col);
+    }
+
+    public static void writeSessionRequest(ByteBuffer out, byte type, long sessionId) {
+        out.putShort((short) 9);
+        out.put(type).putLong(sessionId);
+    }
+
+    public static void writeGame(ByteBuffer out, long sessionId, GameService game) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        out.putShort((short) (1 + 8 + 1 + 2 + rows * cols));
+        out.put(GAME).putLong(sessionId).put((byte) status(game)).put((byte) rows).put((byte) cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                String cell = game.getCell(row, col);
+                out.put((byte) (cell.isEmpty() ? 0 : cell.equals("X") ? 1 : 2));
+            }
+        }
+    }
+
+    public static void writeMoved(ByteBuffer out, long sessionId, boolean accepted, int status) {
+        out.putShort((short) (MOVED_FRAME_BYTES - HEADER_BYTES));
+        out.put(MOVED).putLong(sessionId).put((byte) (accepted ? 1 : 0)).put((byte) status);
+    }
+
+    public static void writeClosed(ByteBuffer out, long sessionId) {
+        out.putShort((short) 9);
+        out.put(CLOSED).putLong(sessionId);
+    }
+
+    public static void writeError(ByteBuffer out, byte code) {
+        out.putShort((short) 2);
+        out.put(ERROR).put(code);
+    }
+}
@@ -0,0 +1,385 @@
+package com.tictactoe.server;
+
+import ch.qos.logback.classic.Level;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.service.GameService;
+import com.tictactoe.service.GameSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Headless TCP server that hosts games over the {@link GameProtocol} binary
+ * frames.
+ *
+ * <p>All connections are served by a single selector thread; there is no
+ * thread per connection. Game rules stay in {@link GameService}, reached
+ * through a {@link GameSessionManager} that may be shared with other front
+ * ends. Read and write buffers come from a {@link BufferPool} and are only
+ * held while a connection has partial input or unsent output, so idle
+ * connections cost no buffer memory.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.server.GameServer [--port 7777]
+ * [--idle-minutes 30] [--verbose]}</p>
+ */
+public class GameServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameServer.class);
+    public static final int DEFAULT_PORT = 7777;
+    private static final int BUFFER_SIZE = 4 * GameProtocol.MAX_FRAME_BYTES;
+    private static final int MAX_POOLED_BUFFERS = 4096;
+    private static final int ACCEPT_BACKLOG = 4096;
+    // Stop reading from a client that does not drain its responses
+    private static final int MAX_PENDING_WRITES = 16;
+
+    private final GameSessionManager sessions;
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread eventLoop;
+    private volatile boolean running;
+    private long connectionsAccepted;
+    private long framesHandled;
+
+    public GameServer(GameSessionManager sessions) {
+        this.sessions = sessions;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        Duration idleTimeout = GameSessionManager.DEFAULT_IDLE_TIMEOUT;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--idle-minutes": idleTimeout = Duration.ofMinutes(Long.parseLong(args[++i])); break;
+                case "--verbose": verbose = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (!verbose) {
+            quietGameLogging();
+        }
+        GameSessionManager sessions = new GameSessionManager(GameService::new, idleTimeout);
+        GameServer server = new GameServer(sessions);
+        server.start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            sessions.close();
+        }));
+        server.eventLoop.join();
+    }
+
+    /**
+     * Per-game logging would dominate a server hosting thousands of games.
+     */
+    static void quietGameLogging() {
+        Logger appLogger = LoggerFactory.getLogger("com.tictactoe.service");
+        if (appLogger instanceof ch.qos.logback.classic.Logger) {
+            ((ch.qos.logback.classic.Logger) appLogger).setLevel(Level.WARN);
+        }
+    }
+
+    /**
+     * Binds the server and starts the event loop thread.
+     *
+     * @return the bound address, useful when binding to port 0
+     */
+    public InetSocketAddress start(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        eventLoop = new Thread(this::runEventLoop, "game-server");
+        eventLoop.start();
+        InetSocketAddress bound = getLocalAddress();
+        logger.info("Game server listening on {}", bound);
+        return bound;
+    }
+
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    private void runEventLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException e) {
+                        logger.debug("Connection failed: {}", e.getMessage());
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                logger.error("Game server event loop failed", e);
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            logger.info("Game server stopped after {} connections and {} frames ({} buffers allocated)",
+                    connectionsAccepted, framesHandled, bufferPool.getAllocated());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connectionsAccepted++;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            eventLoop.join(5000);
+            serverChannel.close();
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Error closing game server", e);
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+        private SelectionKey key;
+        private ByteBuffer in;
+        private ByteBuffer out;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (in == null) {
+                in = bufferPool.acquire();
+            }
+            int read = channel.read(in);
+            if (read < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            while (in.remaining() >= GameProtocol.HEADER_BYTES) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (length == 0 || length > GameProtocol.MAX_FRAME_BYTES - GameProtocol.HEADER_BYTES) {
+                    GameProtocol.writeError(reply(), GameProtocol.ERROR_MALFORMED);
+                    flush();
+                    close();
+                    return;
+                }
+                if (in.remaining() < GameProtocol.HEADER_BYTES + length) {
+                    break;
+                }
+                int frameEnd = in.position() + GameProtocol.HEADER_BYTES + length;
+                int limit = in.limit();
+                // Handlers only see their own frame, so a short one underflows instead of reading the next
+                in.position(in.position() + GameProtocol.HEADER_BYTES).limit(frameEnd);
+                try {
+                    handleFrame(length);
+                } finally {
+                    in.limit(limit).position(frameEnd);
+                }
+                framesHandled++;
+            }
+            if (in.hasRemaining()) {
+                in.compact();
+            } else {
+                bufferPool.release(in);
+                in = null;
+            }
+            flush();
+        }
+
+        private void handleFrame(int length) {
+            byte type = in.get();
+            try {
+                switch (type) {
+                    case GameProtocol.MOVE: handleMove(); break;
+                    case GameProtocol.CREATE: handleCreate(); break;
+                    case GameProtocol.STATE: handleState(); break;
+                    case GameProtocol.CLOSE: handleClose(); break;
+                    default: GameProtocol.writeError(reply(), GameProtocol.ERROR_UNKNOWN_TYPE); break;
+                }
+            } catch (NoSuchElementException e) {
+                GameProtocol.writeError(reply(), GameProtocol.ERROR_NO_SESSION);
+            } catch (RuntimeException e) {
+                // Covers truncated payloads, trailing bytes and bad values such as an unknown mode
+                logger.debug("Rejected malformed frame of type {} and length {}", type, length, e);
+                GameProtocol.writeError(reply(), GameProtocol.ERROR_MALFORMED);
+            }
+        }
+
+        private void handleMove() {
+            long sessionId = in.getLong();
+            int row = in.getShort() & 0xFFFF;
+            int col = in.getShort() & 0xFFFF;
+            checkFrameEnd();
+            ByteBuffer reply = reply();
+            sessions.withSession(sessionId, game -> {
+                boolean accepted = game.isLegalMove(row, col);
+                if (accepted) {
+                    game.makeMove(row, col);
+                }
+                GameProtocol.writeMoved(reply, sessionId, accepted, GameProtocol.status(game));
+                return null;
+            });
+        }
+
+        private void handleCreate() {
+            GameMode mode = GameProtocol.modeOf(in.get() & 0xFF);
+            String player1Name = readName();
+            String player2Name = readName();
+            checkFrameEnd();
+            long sessionId = sessions.createSession(player1Name, player2Name, mode).getSessionId();
+            writeGame(sessionId);
+        }
+
+        private String readName() {
+            byte[] name = new byte[in.get() & 0xFF];
+            in.get(name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        private void handleState() {
+            long sessionId = in.getLong();
+            checkFrameEnd();
+            writeGame(sessionId);
+        }
+
+        private void writeGame(long sessionId) {
+            ByteBuffer reply = reply();
+            sessions.withSession(sessionId, game -> {
+                GameProtocol.writeGame(reply, sessionId, game);
+                return null;
+            });
+        }
+
+        private void handleClose() {
+            long sessionId = in.getLong();
+            checkFrameEnd();
+            if (!sessions.closeSession(sessionId)) {
+                throw new NoSuchElementException("No game session " + sessionId);
+            }
+            GameProtocol.writeClosed(reply(), sessionId);
+        }
+
+        /**
+         * Rejects a frame longer than its payload, before the request is acted on.
+         */
+        private void checkFrameEnd() {
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException(in.remaining() + " unexpected bytes at the end of the frame");
+            }
+        }
+
+        /**
+         * Returns an output buffer with room for any single response frame.
+         */
+        private ByteBuffer reply() {
+            if (out != null && out.remaining() < GameProtocol.MAX_FRAME_BYTES) {
+                out.flip();
+                pendingWrites.addLast(out);
+                out = null;
+            }
+            if (out == null) {
+                out = bufferPool.acquire();
+            }
+            return out;
+        }
+
+        void flush() throws IOException {
+            if (out != null && out.position() > 0) {
+                out.flip();
+                pendingWrites.addLast(out);
+                out = null;
+            }
+            ByteBuffer buffer;
+            while ((buffer = pendingWrites.peekFirst()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                bufferPool.release(pendingWrites.pollFirst());
+            }
+            if (!key.isValid()) {
+                return;
+            }
+            int interest = pendingWrites.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+            if (pendingWrites.size() < MAX_PENDING_WRITES) {
+                interest |= SelectionKey.OP_READ;
+            }
+            key.interestOps(interest);
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing connection", e);
+            }
+            if (in != null) {
+                bufferPool.release(in);
+                in = null;
+            }
+            if (out != null) {
+                bufferPool.release(out);
+                out = null;
+            }
+            pendingWrites.forEach(bufferPool::release);
+            pendingWrites.clear();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.tictactoe.server;
+
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.service.GameService;
+import com.tictactoe.service.GameSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loopback load generator for {@link GameServer}. Opens many client
+ * connections from a single selector thread, each playing both sides of one
+ * game after another, and reports the move round-trip latency distribution.
+ *
+ * <p>Each connection has exactly one request in flight, so the round trip
+ * of a MOVE is measured from the moment its frame is written to the moment
+ * the MOVED reply is decoded. Samples taken during the warm-up are
+ * discarded.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.server.LoadGenerator [--host localhost]
+ * [--port N] [--connections 2000] [--duration-seconds 10] [--warmup-seconds 2]
+ * [--mode CLASSIC] [--seed N]}. Without {@code --port} an embedded server is
+ * started on an ephemeral port.</p>
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final int CLIENT_BUFFER_SIZE = GameProtocol.MAX_FRAME_BYTES;
+
+    private String host = "localhost";
+    private int port;
+    private int connections = 2000;
+    private long durationSeconds = 10;
+    private long warmupSeconds = 2;
+    private GameMode mode = GameMode.CLASSIC;
+    private long seed = 42;
+
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+    private long games;
+    private long errors;
+
+    public static void main(String[] args) throws IOException {
+        LoadGenerator generator = new LoadGenerator();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host": generator.host = args[++i]; break;
+                case "--port": generator.port = Integer.parseInt(args[++i]); break;
+                case "--connections": generator.connections = Integer.parseInt(args[++i]); break;
+                case "--duration-seconds": generator.durationSeconds = Long.parseLong(args[++i]); break;
+                case "--warmup-seconds": generator.warmupSeconds = Long.parseLong(args[++i]); break;
+                case "--mode": generator.mode = GameMode.valueOf(args[++i].toUpperCase()); break;
+                case "--seed": generator.seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (generator.mode.isEndless()) {
+            // MOVED frames do not report which tiles the board cleared
+            throw new IllegalArgumentException("Endless mode is not supported by the load generator");
+        }
+        GameServer.quietGameLogging();
+
+        if (generator.port != 0) {
+            System.out.println(generator.run());
+            return;
+        }
+        try (GameSessionManager sessions = new GameSessionManager(GameService::new);
+             GameServer server = new GameServer(sessions)) {
+            InetSocketAddress address = server.start(new InetSocketAddress("localhost", 0));
+            generator.host = address.getHostString();
+            generator.port = address.getPort();
+            System.out.println(generator.run());
+        }
+    }
+
+    public Result run() throws IOException {
+        logger.info("Opening {} connections to {}:{}", connections, host, port);
+        SplittableRandom random = new SplittableRandom(seed);
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Client client = new Client(channel, random.split());
+                client.key = channel.register(selector, SelectionKey.OP_CONNECT, client);
+                channel.connect(address);
+            }
+
+            long start = System.nanoTime();
+            long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+            long measuredGamesBase = -1;
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                if (measuredGamesBase < 0 && now >= measureStart) {
+                    measuredGamesBase = games;
+                    latencyCount = 0;
+                }
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            client.connected();
+                        } else {
+                            if (key.isWritable()) {
+                                client.flush();
+                            }
+                            if (key.isReadable()) {
+                                client.read();
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors++;
+                        logger.debug("Client connection failed: {}", e.getMessage());
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            long measuredGames = games - Math.max(0, measuredGamesBase);
+            return new Result(Arrays.copyOf(latencies, latencyCount), measuredGames, errors,
+                    TimeUnit.SECONDS.toNanos(durationSeconds), connections);
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[latencyCount++] = nanos;
+    }
+
+    private final class Client {
+        private final SocketChannel channel;
+        private final SplittableRandom random;
+        private final ByteBuffer in = ByteBuffer.allocate(CLIENT_BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocate(CLIENT_BUFFER_SIZE);
+        private SelectionKey key;
+        private long sessionId;
+        // Cells in the order this client will play them, both sides alternating
+        private int[] order = new int[0];
+        private int played;
+        private int cols;
+        private long sentAt;
+
+        Client(SocketChannel channel, SplittableRandom random) {
+            this.channel = channel;
+            this.random = random;
+        }
+
+        void connected() throws IOException {
+            channel.finishConnect();
+            key.interestOps(SelectionKey.OP_READ);
+            GameProtocol.writeCreate(out, mode, "Load " + System.identityHashCode(this), "Load opponent");
+            flush();
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            in.flip();
+            while (in.remaining() >= GameProtocol.HEADER_BYTES) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (in.remaining() < GameProtocol.HEADER_BYTES + length) {
+                    break;
+                }
+                int frameEnd = in.position() + GameProtocol.HEADER_BYTES + length;
+                in.position(in.position() + GameProtocol.HEADER_BYTES);
+                handleFrame();
+                in.position(frameEnd);
+            }
+            in.compact();
+            flush();
+        }
+
+        private void handleFrame() throws IOException {
+            byte type = in.get();
+            switch (type) {
+                case GameProtocol.GAME:
+                    sessionId = in.getLong();
+                    in.get(); // status
+                    int rows = in.get() & 0xFF;
+                    cols = in.get() & 0xFF;
+                    startGame(rows * cols);
+                    sendMove();
+                    break;
+                case GameProtocol.MOVED:
+                    recordLatency(System.nanoTime() - sentAt);
+                    in.getLong();
+                    boolean accepted = in.get() != 0;
+                    int status = in.get() & 0xFF;
+                    if (!accepted) {
+                        throw new IOException("Server rejected move " + order[played - 1]);
+                    }
+                    if ((status & GameProtocol.STATUS_GAME_OVER) != 0) {
+                        games++;
+                        GameProtocol.writeSessionRequest(out, GameProtocol.CLOSE, sessionId);
+                        GameProtocol.writeCreate(out, mode, "Load " + System.identityHashCode(this), "Load opponent");
+                    } else {
+                        sendMove();
+                    }
+                    break;
+                case GameProtocol.CLOSED:
+                    in.getLong();
+                    break;
+                default:
+                    throw new IOException("Unexpected frame type " + type);
+            }
+        }
+
+        private void startGame(int cells) {
+            if (order.length != cells) {
+                order = new int[cells];
+            }
+            for (int i = 0; i < cells; i++) {
+                int swap = random.nextInt(i + 1);
+                order[i] = order[swap];
+                order[swap] = i;
+            }
+            played = 0;
+        }
+
+        private void sendMove() {
+            int cell = order[played++];
+            GameProtocol.writeMove(out, sessionId, cell / cols, cell % cols);
+            sentAt = System.nanoTime();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    public static class Result {
+        // Move round-trip times in nanoseconds
+        private final long[] latencies;
+        private final long games;
+        private final long errors;
+        private final long elapsedNanos;
+        private final int connections;
+
+        Result(long[] latencies, long games, long errors, long elapsedNanos, int connections) {
+            Arrays.sort(latencies);
+            this.latencies = latencies;
+            this.games = games;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.connections = connections;
+        }
+
+        public long getMoves() {
+            return latencies.length;
+        }
+
+        public double getMovesPerSecond() {
+            return latencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Move round trip, in microseconds, that {@code percentile} percent of
+         * the moves did not exceed.
+         */
+        public double getLatencyMicros(double percentile) {
+            if (latencies.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(latencies.length * percentile / 100.0) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d connections played %d moves in %d games over %.1f s (%d errors)%n"
+                            + "  %.0f moves/s, %.0f games/s%n"
+                            + "  Move round trip: p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    connections, getMoves(), games, elapsedNanos / 1_000_000_000.0, errors,
+                    getMovesPerSecond(), getGamesPerSecond(),
+                    getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99),
+                    getLatencyMicros(99.9), getLatencyMicros(100));
+        }
+    }
+}
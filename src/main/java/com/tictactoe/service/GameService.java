@@ -1,90 +1,139 @@
 package com.tictactoe.service;
 
+import com.tictactoe.model.entity.Board;
 import com.tictactoe.model.entity.GameEntity;
 import com.tictactoe.model.entity.PlayerEntity;
 import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.model.enums.Player;
 import com.tictactoe.repository.GameRepository;
+import com.tictactoe.repository.GameResultWriter;
 import com.tictactoe.repository.PlayerRepository;
+import com.tictactoe.util.MoveCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class GameService {
     private static final Logger logger = LoggerFactory.getLogger(GameService.class);
+    // Move log entries are packed as (cell << 2) | kind, the layout MoveCodec encodes from
+    private static final int MOVE_X = MoveCodec.X;
+    private static final int MOVE_O = MoveCodec.O;
+    private static final int MOVE_CLEAR = MoveCodec.CLEAR;
+    private static final int INITIAL_MOVE_CAPACITY = 16;
+    // Tiles cleared when an Endless board fills up without a winner
+    private static final int ENDLESS_CLEAR_COUNT = 3;
+
     private final PlayerRepository playerRepository;
     private final GameRepository gameRepository;
-    private final String[][] board;
+    private final GameResultWriter resultWriter;
+    private Board board;
     private PlayerEntity player1;
     private PlayerEntity player2;
     private boolean isGameOver;
     private int moveCount;
-    private List<String> moves;
+    private int[] moves;
+    private int moveLogSize;
+    private int winningMove; // Cell of the move that won the game, -1 if none
     private GameMode gameMode;
-    private Set<String> clearedPositions; // Track cleared positions
+    private SplittableRandom random;
+    private int[] clearOrder; // Scratch permutation of cells for Endless clearing
+    private final int[] lastCleared = new int[ENDLESS_CLEAR_COUNT];
+    private int lastClearedCount;
 
-    public GameService(GameRepository gameRepository, PlayerRepository playerRepository) {
+    /**
+     * Creates a service that records finished games through the given
+     * write-behind queue instead of writing them on the calling thread.
+     * Players are still resolved synchronously, which for returning players
+     * is a lookup in the {@link com.tictactoe.repository.PlayerCache}.
+     */
+    public GameService(GameRepository gameRepository, PlayerRepository playerRepository,
+                       GameResultWriter resultWriter) {
         this.gameRepository = gameRepository;
         this.playerRepository = playerRepository;
-        this.board = new String[3][3];
-        this.moves = new ArrayList<>();
+        this.resultWriter = resultWriter;
+        this.moves = new int[INITIAL_MOVE_CAPACITY];
         this.gameMode = GameMode.CLASSIC; // Default mode
-        this.clearedPositions = new HashSet<>();
+        this.board = new Board(gameMode);
+        this.clearOrder = new int[board.getSize()];
+        this.random = new SplittableRandom();
         resetGame();
     }
 
+    public GameService(GameRepository gameRepository, PlayerRepository playerRepository) {
+        this(gameRepository, playerRepository, null);
+    }
+
+    /**
+     * Creates a service that plays by the same rules but never touches the
+     * database. Players and their stats only live in memory, which is what
+     * headless simulations and bots want.
+     */
+    public GameService() {
+        this(null, null, null);
+    }
+
     public PlayerEntity startNewGame(String player1Name, String player2Name, GameMode mode) {
-        this.gameMode = mode;
-        player1 = playerRepository.findByName(player1Name)
-                .orElseGet(() -> {
-                    PlayerEntity newPlayer = new PlayerEntity();
-                    newPlayer.setName(player1Name);
-                    return playerRepository.save(newPlayer);
-                });
-
-        player2 = playerRepository.findByName(player2Name)
-                .orElseGet(() -> {
-                    PlayerEntity newPlayer = new PlayerEntity();
-                    newPlayer.setName(player2Name);
-                    return playerRepository.save(newPlayer);
-                });
+        setGameMode(mode);
+        player1 = resolvePlayer(player1Name, player1);
+        player2 = resolvePlayer(player2Name, player2);
 
         resetGame();
         logger.info("Started new {} game between {} and {}", mode, player1Name, player2Name);
         return player1;
     }
 
-    public void resetGame() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = "";
-            }
+    private PlayerEntity resolvePlayer(String name, PlayerEntity current) {
+        // Keep accumulating stats while the same player keeps playing; with a
+        // write-behind queue the database may not have caught up yet
+        if (current != null && name.equals(current.getName())) {
+            return current;
+        }
+        if (!isPersistent()) {
+            return new PlayerEntity(name);
         }
+        return playerRepository.findOrCreate(name);
+    }
+
+    private boolean isPersistent() {
+        return playerRepository != null && gameRepository != null;
+    }
+
+    public void resetGame() {
+        board.reset();
         isGameOver = false;
         moveCount = 0;
-        moves.clear();
-        clearedPositions.clear();
+        moveLogSize = 0;
+        winningMove = -1;
+        lastClearedCount = 0;
+    }
+
+    /**
+     * Reseeds the random source used for Endless clearing, making the
+     * following games fully reproducible.
+     */
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
     }
 
     public boolean makeMove(int row, int col) {
-        if (row < 0 || row >= 3 || col < 0 || col >= 3 || !board[row][col].isEmpty() || isGameOver) {
+        if (!board.isInside(row, col) || isGameOver) {
+            return false;
+        }
+        int cell = board.indexOf(row, col);
+        boolean isX = isCurrentPlayerX();
+        lastClearedCount = 0;
+        if (!board.place(cell, isX ? Player.X : Player.O)) {
             return false;
         }
-        String symbol = getCurrentPlayerSymbol();
-        board[row][col] = symbol;
         moveCount++;
-        moves.add(String.format("%d,%d,%s", row, col, symbol));
-        // Remove this position from cleared positions if it was previously cleared
-        clearedPositions.remove(row + "," + col);
-        if (checkWinForSymbol(symbol)) {
+        recordMove(cell, isX ? MOVE_X : MOVE_O);
+        if (board.isWinningMove(cell)) {
             isGameOver = true;
-            // Since getCurrentPlayerSymbol() returns X for even moveCount and O for odd
-            // moveCount
-            // and moveCount has been incremented, we need to check the previous state
+            winningMove = cell;
+            // moveCount has already been incremented, so check the previous state
             // If moveCount is now odd, X just played (player1)
             // If moveCount is now even, O just played (player2)
             PlayerEntity winner = ((moveCount - 1) % 2 == 0) ? player1 : player2;
@@ -94,8 +143,10 @@ public class GameService {
             return true;
         }
 
-        if (isBoardFull()) {
-            if (gameMode == GameMode.CLASSIC) {
+        if (board.isFull()) {
+            if (gameMode.isEndless()) {
+                clearRandomTiles();
+            } else {
                 isGameOver = true;
                 updateStats(player1, player2, true);
                 saveGameResult(null, true);
@@ -106,72 +157,86 @@ public class GameService {
         return false;
     }
 
+    /**
+     * Whether the player to move may place a stone at the given cell.
+     */
+    public boolean isLegalMove(int row, int col) {
+        return !isGameOver && board.isInside(row, col) && board.isEmpty(board.indexOf(row, col));
+    }
+
     public void clearTile(int row, int col) {
-        if (row >= 0 && row < 3 && col >= 0 && col < 3) {
-            board[row][col] = "";
-            moves.add(String.format("%d,%d,CLEAR", row, col));
-            clearedPositions.add(row + "," + col);
+        if (board.isInside(row, col)) {
+            int cell = board.indexOf(row, col);
+            board.clear(cell);
+            recordMove(cell, MOVE_CLEAR);
             logger.debug("Cleared tile at position ({}, {})", row, col);
         }
     }
 
-    public boolean hasWinner() {
-        return checkWinForSymbol("X") || checkWinForSymbol("O");
+    /**
+     * Endless rule: a full board without a winner immediately loses a few
+     * random tiles. Picks distinct cells with a partial Fisher-Yates shuffle.
+     */
+    private void clearRandomTiles() {
+        int size = board.getSize();
+        for (int i = 0; i < size; i++) {
+            clearOrder[i] = i;
+        }
+        int count = Math.min(ENDLESS_CLEAR_COUNT, size);
+        for (int i = 0; i < count; i++) {
+            int pick = i + random.nextInt(size - i);
+            int cell = clearOrder[pick];
+            clearOrder[pick] = clearOrder[i];
+            clearOrder[i] = cell;
+            clearTile(cell / board.getCols(), cell % board.getCols());
+            lastCleared[lastClearedCount++] = cell;
+        }
     }
 
-    private boolean checkWinForSymbol(String symbol) {
-        // Check rows
-        for (int i = 0; i < 3; i++) {
-            boolean rowWin = true;
-            for (int j = 0; j < 3; j++) {
-                if (isPositionCleared(i, j) || !board[i][j].equals(symbol)) {
-                    rowWin = false;
-                    break;
-                }
-            }
-            if (rowWin)
-                return true;
+    /**
+     * Returns the {@code {row, col}} cells that the last move's Endless
+     * clearing emptied, or an empty array if it cleared nothing.
+     */
+    public int[][] getLastClearedCells() {
+        int[][] cells = new int[lastClearedCount][];
+        for (int i = 0; i < lastClearedCount; i++) {
+            cells[i] = new int[] {lastCleared[i] / board.getCols(), lastCleared[i] % board.getCols()};
         }
+        return cells;
+    }
 
-        // Check columns
-        for (int j = 0; j < 3; j++) {
-            boolean colWin = true;
-            for (int i = 0; i < 3; i++) {
-                if (isPositionCleared(i, j) || !board[i][j].equals(symbol)) {
-                    colWin = false;
-                    break;
-                }
-            }
-            if (colWin)
-                return true;
-        }
+    public boolean hasWinner() {
+        return winningMove >= 0;
+    }
 
-        // Check main diagonal
-        boolean diagWin = true;
-        for (int i = 0; i < 3; i++) {
-            if (isPositionCleared(i, i) || !board[i][i].equals(symbol)) {
-                diagWin = false;
-                break;
-            }
+    /**
+     * Returns the {@code {row, col}} cells of the winning line, or an empty
+     * array while nobody has won.
+     */
+    public int[][] getWinningCells() {
+        if (winningMove < 0) {
+            return new int[0][];
         }
-        if (diagWin)
-            return true;
-
-        // Check other diagonal
-        diagWin = true;
-        for (int i = 0; i < 3; i++) {
-            if (isPositionCleared(i, 2 - i) || !board[i][2 - i].equals(symbol)) {
-                diagWin = false;
-                break;
-            }
+        int[] line = board.getWinningLine(winningMove);
+        int[][] cells = new int[line.length][];
+        for (int i = 0; i < line.length; i++) {
+            cells[i] = new int[] {line[i] / board.getCols(), line[i] % board.getCols()};
         }
-        return diagWin;
+        return cells;
     }
 
-    private boolean isPositionCleared(int row, int col) {
-        return clearedPositions.contains(row + "," + col);
+    private void recordMove(int cell, int kind) {
+        if (moveLogSize == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveLogSize++] = (cell << 2) | kind;
     }
 
+    /**
+     * Updates the in-memory stats shown to the players. The stored counters
+     * are incremented by {@link GameRepository#recordResult} instead, so
+     * these copies are never written back.
+     */
     private void updateStats(PlayerEntity winner, PlayerEntity loser, boolean isDraw) {
         if (isDraw) {
             player1.setDraws(player1.getDraws() + 1);
@@ -183,7 +248,7 @@ public class GameService {
             winner.setWins(currentWins + 1);
             loser.setLosses(currentLosses + 1);
             // Now update the player1/player2 references to match
-            if (winner.getId().equals(player1.getId())) {
+            if (winner == player1) {
                 player1 = winner; // Update player1 reference with new stats
                 player2 = loser; // Update player2 reference with new stats
             } else {
@@ -191,12 +256,12 @@ public class GameService {
                 player1 = loser; // Update player1 reference with new stats
             }
         }
-        // Save the updated stats to the database
-        playerRepository.save(player1);
-        playerRepository.save(player2);
     }
 
     private void saveGameResult(Long winnerId, boolean isDraw) {
+        if (!isPersistent()) {
+            return;
+        }
         try {
             GameEntity game = new GameEntity();
             game.setPlayer1Id(player1.getId());
@@ -204,10 +269,16 @@ public class GameService {
             game.setWinnerId(winnerId);
             game.setDraw(isDraw);
             game.setGameMode(gameMode);
-            game.setMoves(String.join(";", moves));
+            game.setEncodedMoves(MoveCodec.encode(moves, moveLogSize, board.getCols()));
             game.setPlayedAt(LocalDateTime.now());
-            gameRepository.save(game);
-            logger.info("Game result saved successfully");
+            // The stored stats are incremented together with the game insert
+            if (resultWriter != null) {
+                resultWriter.submit(game);
+                logger.info("Game result queued for saving");
+            } else {
+                gameRepository.recordResult(game);
+                logger.info("Game result saved successfully");
+            }
         } catch (Exception e) {
             logger.error("Failed to save game result", e);
         }
@@ -215,27 +286,41 @@ public class GameService {
 
     public String getGameResult() {
         if (hasWinner()) {
-            return getCurrentPlayerSymbol();
+            return getLastPlayerSymbol();
         }
-        if (isBoardFull() && gameMode == GameMode.CLASSIC) {
+        if (board.isFull() && !gameMode.isEndless()) {
             return "DRAW";
         }
         return "";
     }
 
-    private boolean isBoardFull() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j].isEmpty()) {
-                    return false;
-                }
-            }
-        }
-        return true;
+    // player1 moves first and places X. Games recorded before this was fixed have player1 as O in
+    // their moves; see MoveCodec for how stored history is read
+    private boolean isCurrentPlayerX() {
+        return moveCount % 2 == 0;
+    }
+
+    private String getLastPlayerSymbol() {
+        return isCurrentPlayerX() ? "O" : "X";
+    }
+
+    /**
+     * The stone the next move will place on the board.
+     */
+    public Player getCurrentPlayer() {
+        return isCurrentPlayerX() ? Player.X : Player.O;
     }
 
-    private String getCurrentPlayerSymbol() {
-        return (moveCount % 2 == 0) ? "O" : "X"; // Reversed to make player1 (first player) X
+    /**
+     * Returns a copy of the current board that callers such as the AI may
+     * freely play on.
+     */
+    public Board getBoardSnapshot() {
+        return board.copy();
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
     }
 
     public PlayerEntity getPlayer1() {
@@ -247,18 +332,18 @@ public class GameService {
     }
 
     public String getCell(int row, int col) {
-        if (row >= 0 && row < 3 && col >= 0 && col < 3) {
-            if (isPositionCleared(row, col)) {
-                return "";
-            }
-            return board[row][col];
+        if (board.isInside(row, col)) {
+            return board.get(row, col).getSymbol();
         }
         return "";
     }
 
-    private boolean checkWin(int row, int col) {
-        String symbol = board[row][col];
-        return checkWinForSymbol(symbol);
+    public int getRows() {
+        return board.getRows();
+    }
+
+    public int getCols() {
+        return board.getCols();
     }
 
     public GameMode getGameMode() {
@@ -267,5 +352,10 @@ public class GameService {
 
     public void setGameMode(GameMode gameMode) {
         this.gameMode = gameMode;
+        if (!board.matches(gameMode)) {
+            board = new Board(gameMode);
+            clearOrder = new int[board.getSize()];
+            resetGame();
+        }
     }
 }
\ No newline at end of file
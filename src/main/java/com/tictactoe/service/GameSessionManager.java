@@ -0,0 +1,185 @@
+package com.tictactoe.service;
+
+import com.tictactoe.model.enums.GameMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hosts many independent games, each backed by its own {@link GameService}
+ * and addressed by a session id.
+ *
+ * <p>Every session has its own fair lock, so operations on one game run one
+ * at a time in arrival order while operations on different games run fully
+ * in parallel. Sessions that have not been touched for the idle timeout are
+ * evicted by a background sweeper.</p>
+ */
+public class GameSessionManager implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameSessionManager.class);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong(1);
+    private final Supplier<GameService> serviceFactory;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param serviceFactory creates the service backing each new session, e.g.
+     *                       {@code GameService::new} for games that are not persisted
+     */
+    public GameSessionManager(Supplier<GameService> serviceFactory, Duration idleTimeout) {
+        this.serviceFactory = serviceFactory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, idleTimeout.toMillis() / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdleSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public GameSessionManager(Supplier<GameService> serviceFactory) {
+        this(serviceFactory, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public GameSnapshot createSession(String player1Name, String player2Name, GameMode mode) {
+        long id = nextSessionId.getAndIncrement();
+        GameService game = serviceFactory.get();
+        game.startNewGame(player1Name, player2Name, mode);
+        Session session = new Session(id, game);
+        sessions.put(id, session);
+        logger.debug("Created session {} ({} sessions active)", id, sessions.size());
+        return GameSnapshot.of(id, game);
+    }
+
+    /**
+     * Plays the next move of session {@code sessionId}. Illegal moves are
+     * rejected without changing the game.
+     *
+     * @throws NoSuchElementException if the session does not exist or was evicted
+     */
+    public MoveResult makeMove(long sessionId, int row, int col) {
+        return withSession(sessionId, game -> {
+            boolean legal = game.isLegalMove(row, col);
+            if (legal) {
+                game.makeMove(row, col);
+            }
+            return new MoveResult(legal, GameSnapshot.of(sessionId, game));
+        });
+    }
+
+    public GameSnapshot getSnapshot(long sessionId) {
+        return withSession(sessionId, game -> GameSnapshot.of(sessionId, game));
+    }
+
+    /**
+     * Runs {@code action} with exclusive access to the session's game.
+     *
+     * @throws NoSuchElementException if the session does not exist or was evicted
+     */
+    public <T> T withSession(long sessionId, Function<GameService, T> action) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            throw new NoSuchElementException("No game session " + sessionId);
+        }
+        session.lock.lock();
+        try {
+            if (session.closed) {
+                throw new NoSuchElementException("Game session " + sessionId + " has ended");
+            }
+            session.lastAccessNanos = System.nanoTime();
+            return action.apply(session.game);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public boolean closeSession(long sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes every session idle for longer than the timeout. Sessions that
+     * are in use when the sweep reaches them are left alone. Runs
+     * periodically on its own, but may also be called directly.
+     *
+     * @return the number of sessions evicted
+     */
+    public int evictIdleSessions() {
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (System.nanoTime() - session.lastAccessNanos <= idleTimeoutNanos) {
+                continue;
+            }
+            // A session that is locked or waited for is in use and about to be touched, so it is kept
+            if (session.lock.hasQueuedThreads() || !session.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (System.nanoTime() - session.lastAccessNanos > idleTimeoutNanos
+                        && sessions.remove(session.id, session)) {
+                    session.closed = true;
+                    evicted++;
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle game sessions, {} remain", evicted, sessions.size());
+        }
+        return evicted;
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        sessions.values().forEach(Session::close);
+        sessions.clear();
+    }
+
+    private static final class Session {
+        final long id;
+        final GameService game;
+        // Fair, so queued moves on the same game are applied in arrival order
+        final ReentrantLock lock = new ReentrantLock(true);
+        volatile long lastAccessNanos = System.nanoTime();
+        boolean closed;
+
+        Session(long id, GameService game) {
+            this.id = id;
+            this.game = game;
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tictactoe.service;
+
+import com.tictactoe.model.enums.GameMode;
+
+/**
+ * Immutable view of one hosted game, safe to hand to other threads and to
+ * serialize. The board is one character per cell in row-major order:
+ * {@code 'X'}, {@code 'O'} or {@code '.'} for an empty cell.
+ */
+public class GameSnapshot {
+    private final long sessionId;
+    private final GameMode gameMode;
+    private final int rows;
+    private final int cols;
+    private final String board;
+    private final String player1Name;
+    private final String player2Name;
+    private final String nextPlayer;
+    private final boolean gameOver;
+    private final String result;
+
+    public GameSnapshot(long sessionId, GameMode gameMode, int rows, int cols, String board,
+                        String player1Name, String player2Name, String nextPlayer,
+                        boolean gameOver, String result) {
+        this.sessionId = sessionId;
+        this.gameMode = gameMode;
+        this.rows = rows;
+        this.cols = cols;
+        this.board = board;
+        this.player1Name = player1Name;
+        this.player2Name = player2Name;
+        this.nextPlayer = nextPlayer;
+        this.gameOver = gameOver;
+        this.result = result;
+    }
+
+    static GameSnapshot of(long sessionId, GameService game) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        StringBuilder board = new StringBuilder(rows * cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                String cell = game.getCell(row, col);
+                board.append(cell.isEmpty() ? '.' : cell.charAt(0));
+            }
+        }
+        return new GameSnapshot(sessionId, game.getGameMode(), rows, cols, board.toString(),
+                game.getPlayer1() != null ? game.getPlayer1().getName() : null,
+                game.getPlayer2() != null ? game.getPlayer2().getName() : null,
+                game.getCurrentPlayer().getSymbol(), game.isGameOver(), game.getGameResult());
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public String getBoard() {
+        return board;
+    }
+
+    public String getPlayer1Name() {
+        return player1Name;
+    }
+
+    public String getPlayer2Name() {
+        return player2Name;
+    }
+
+    /**
+     * Symbol of the player to move next; player 1 is always X.
+     */
+    public String getNextPlayer() {
+        return nextPlayer;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * "X" or "O" for the winner, "DRAW", or empty while the game goes on.
+     */
+    public String getResult() {
+        return result;
+    }
+}
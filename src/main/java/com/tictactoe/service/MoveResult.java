@@ -0,0 +1,23 @@
+package com.tictactoe.service;
+
+/**
+ * Outcome of a move submitted to a hosted game: whether it was legal, and
+ * the game state right after it was applied (or rejected).
+ */
+public class MoveResult {
+    private final boolean accepted;
+    private final GameSnapshot snapshot;
+
+    public MoveResult(boolean accepted, GameSnapshot snapshot) {
+        this.accepted = accepted;
+        this.snapshot = snapshot;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
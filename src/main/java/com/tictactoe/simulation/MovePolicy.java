@@ -0,0 +1,155 @@
+package com.tictactoe.simulation;
+
+import com.tictactoe.ai.AlphaBetaSearch;
+import com.tictactoe.ai.MonteCarloTreeSearch;
+import com.tictactoe.ai.MoveSearch;
+import com.tictactoe.ai.PerfectPlayTable;
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.service.GameService;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Chooses moves for one side of a simulated game. Implementations may keep
+ * state and are only ever used by one thread; use {@link #fromSpec} to get a
+ * factory that builds one instance per worker, and close it when the worker
+ * is done.
+ */
+public interface MovePolicy extends AutoCloseable {
+
+    /**
+     * Returns the cell index ({@code row * cols + col}) to play next.
+     */
+    int chooseMove(GameService game, SplittableRandom random);
+
+    /**
+     * Called before every game, for policies that track their progress.
+     */
+    default void reset() {
+    }
+
+    /**
+     * Releases resources such as search threads.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Uniformly random empty cell.
+     */
+    static MovePolicy random() {
+        return (game, random) -> randomEmptyCell(game, random);
+    }
+
+    /**
+     * Perfect play from the table on classic boards, otherwise a time-boxed
+     * alpha-beta search.
+     */
+    static MovePolicy computer(long budgetMillis) {
+        MoveSearch search = new AlphaBetaSearch(budgetMillis, 16);
+        return (game, random) -> {
+            Board board = game.getBoardSnapshot();
+            if (PerfectPlayTable.supports(board)) {
+                int move = PerfectPlayTable.getDefault()
+                        .map(table -> table.bestMove(board, game.getCurrentPlayer()))
+                        .orElse(-1);
+                if (move >= 0) {
+                    return move;
+                }
+            }
+            return search.findBestMove(board, game.getCurrentPlayer()).getMove();
+        };
+    }
+
+    /**
+     * Monte Carlo Tree Search on a single thread, as the simulator already
+     * runs one game per core.
+     */
+    static MovePolicy monteCarlo(long budgetMillis) {
+        MonteCarloTreeSearch search = new MonteCarloTreeSearch(1, budgetMillis);
+        return new MovePolicy() {
+            @Override
+            public int chooseMove(GameService game, SplittableRandom random) {
+                return search.findBestMove(game.getBoardSnapshot(), game.getCurrentPlayer()).getMove();
+            }
+
+            @Override
+            public void close() {
+                search.close();
+            }
+        };
+    }
+
+    /**
+     * Plays the given cells in order, skipping ones that are taken, then
+     * falls back to random moves.
+     */
+    static MovePolicy scripted(int[] cells) {
+        return new MovePolicy() {
+            private int next;
+
+            @Override
+            public int chooseMove(GameService game, SplittableRandom random) {
+                int cols = game.getCols();
+                while (next < cells.length) {
+                    int cell = cells[next++];
+                    if (game.getCell(cell / cols, cell % cols).isEmpty()) {
+                        return cell;
+                    }
+                }
+                return randomEmptyCell(game, random);
+            }
+
+            @Override
+            public void reset() {
+                next = 0;
+            }
+        };
+    }
+
+    /**
+     * Parses {@code random}, {@code ai}, {@code mcts} or {@code script:4,0,8}.
+     */
+    static Supplier<MovePolicy> fromSpec(String spec, long budgetMillis) {
+        if (spec.equals("random")) {
+            return MovePolicy::random;
+        }
+        if (spec.equals("ai")) {
+            return () -> computer(budgetMillis);
+        }
+        if (spec.equals("mcts")) {
+            return () -> monteCarlo(budgetMillis);
+        }
+        if (spec.startsWith("script:")) {
+            int[] cells = Arrays.stream(spec.substring("script:".length()).split(","))
+                    .map(String::trim)
+                    .mapToInt(Integer::parseInt)
+                    .toArray();
+            return () -> scripted(cells);
+        }
+        throw new IllegalArgumentException("Unknown move policy: " + spec);
+    }
+
+    private static int randomEmptyCell(GameService game, SplittableRandom random) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int empty = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (game.getCell(row, col).isEmpty()) {
+                    empty++;
+                }
+            }
+        }
+        int pick = random.nextInt(empty);
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (game.getCell(cell / cols, cell % cols).isEmpty() && pick-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No empty cell to play");
+    }
+}
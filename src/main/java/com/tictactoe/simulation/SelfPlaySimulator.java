@@ -0,0 +1,279 @@
+package com.tictactoe.simulation;
+
+import ch.qos.logback.classic.Level;
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.repository.GameRepository;
+import com.tictactoe.repository.GameResultWriter;
+import com.tictactoe.repository.PlayerRepository;
+import com.tictactoe.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Headless self-play: plays many games with the {@link GameService} rules on
+ * a thread pool, without JavaFX and, unless asked to, without the database.
+ *
+ * <p>The report includes the distribution of game lengths, which for
+ * {@code --mode ENDLESS} shows how long the random clearing keeps games going.</p>
+ *
+ * <p>Every worker owns its own service and policies and claims games in
+ * batches from a shared counter, so workers never contend and throughput
+ * scales with cores. Each game gets its own seeded random source, so a run
+ * is reproducible for a given seed regardless of the thread count.</p>
+ *
+ * <p>Usage: {@code java com.tictactoe.simulation.SelfPlaySimulator
+ * [--games N] [--threads N] [--mode CLASSIC] [--player1 random|ai|mcts|script:4,0,8]
+ * [--player2 ...] [--budget-ms N] [--seed N] [--persist] [--verbose]}</p>
+ */
+public class SelfPlaySimulator {
+    private static final Logger logger = LoggerFactory.getLogger(SelfPlaySimulator.class);
+    private static final int CLAIM_BATCH = 256;
+    // Endless games can in principle go on forever
+    private static final int MAX_MOVES_PER_GAME = 10_000;
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    private static final String PLAYER1_NAME = "Simulator 1";
+    private static final String PLAYER2_NAME = "Simulator 2";
+
+    // Indices into the per-worker counters
+    private static final int GAMES = 0;
+    private static final int MOVES = 1;
+    private static final int PLAYER1_WINS = 2;
+    private static final int PLAYER2_WINS = 3;
+    private static final int DRAWS = 4;
+    private static final int UNFINISHED = 5;
+
+    private long games = 100_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private GameMode mode = GameMode.CLASSIC;
+    private String player1Policy = "random";
+    private String player2Policy = "random";
+    private long budgetMillis = 10;
+    private long seed = 42;
+    private boolean persist;
+
+    public static void main(String[] args) {
+        SelfPlaySimulator simulator = new SelfPlaySimulator();
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games": simulator.games = Long.parseLong(args[++i]); break;
+                case "--threads": simulator.threads = Integer.parseInt(args[++i]); break;
+                case "--mode": simulator.mode = GameMode.valueOf(args[++i].toUpperCase()); break;
+                case "--player1": simulator.player1Policy = args[++i]; break;
+                case "--player2": simulator.player2Policy = args[++i]; break;
+                case "--budget-ms": simulator.budgetMillis = Long.parseLong(args[++i]); break;
+                case "--seed": simulator.seed = Long.parseLong(args[++i]); break;
+                case "--persist": simulator.persist = true; break;
+                case "--verbose": verbose = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (!verbose) {
+            quietGameLogging();
+        }
+        System.out.println(simulator.run());
+    }
+
+    /**
+     * Per-game and per-move logging would dominate a run of millions of games.
+     */
+    private static void quietGameLogging() {
+        Logger appLogger = LoggerFactory.getLogger("com.tictactoe");
+        if (appLogger instanceof ch.qos.logback.classic.Logger) {
+            ((ch.qos.logback.classic.Logger) appLogger).setLevel(Level.WARN);
+        }
+    }
+
+    public Result run() {
+        Supplier<MovePolicy> player1Factory = MovePolicy.fromSpec(player1Policy, budgetMillis);
+        Supplier<MovePolicy> player2Factory = MovePolicy.fromSpec(player2Policy, budgetMillis);
+        AtomicLong nextGame = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        logger.info("Simulating {} {} games on {} threads: {} vs {}", games, mode, threads, player1Policy, player2Policy);
+
+        long start = System.nanoTime();
+        long[] totals = new long[UNFINISHED + 1];
+        long[] lengths = new long[MAX_MOVES_PER_GAME + 1];
+        try {
+            List<Future<long[][]>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> runWorker(nextGame, player1Factory, player2Factory)));
+            }
+            for (Future<long[][]> worker : workers) {
+                long[][] tally = worker.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += tally[0][i];
+                }
+                for (int i = 0; i < lengths.length; i++) {
+                    lengths[i] += tally[1][i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (persist) {
+                GameResultWriter.closeDefault();
+            }
+        }
+        return new Result(totals, lengths, System.nanoTime() - start, threads);
+    }
+
+    private long[][] runWorker(AtomicLong nextGame, Supplier<MovePolicy> player1Factory,
+                               Supplier<MovePolicy> player2Factory) {
+        GameService service = persist
+                ? new GameService(new GameRepository(), new PlayerRepository(), GameResultWriter.getDefault())
+                : new GameService();
+        long[] counters = new long[UNFINISHED + 1];
+        long[] lengths = new long[MAX_MOVES_PER_GAME + 1];
+        try (MovePolicy player1 = player1Factory.get(); MovePolicy player2 = player2Factory.get()) {
+            long batchStart;
+            while ((batchStart = nextGame.getAndAdd(CLAIM_BATCH)) < games) {
+                long batchEnd = Math.min(games, batchStart + CLAIM_BATCH);
+                for (long game = batchStart; game < batchEnd; game++) {
+                    playGame(service, player1, player2, seed + game * SEED_STRIDE, counters, lengths);
+                }
+            }
+        }
+        return new long[][] {counters, lengths};
+    }
+
+    private void playGame(GameService service, MovePolicy player1, MovePolicy player2,
+                          long gameSeed, long[] counters, long[] lengths) {
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        service.startNewGame(PLAYER1_NAME, PLAYER2_NAME, mode);
+        // Endless clearing draws from the service's own source, seed it per game too
+        service.setSeed(~gameSeed);
+        player1.reset();
+        player2.reset();
+        int cols = service.getCols();
+        int moves = 0;
+        boolean player1ToMove = true;
+        while (!service.isGameOver() && moves < MAX_MOVES_PER_GAME) {
+            int cell = (player1ToMove ? player1 : player2).chooseMove(service, random);
+            // An illegal move would not be played, and the turn would no longer match the service's
+            if (!service.isLegalMove(cell / cols, cell % cols)) {
+                throw new IllegalStateException((player1ToMove ? player1Policy : player2Policy)
+                        + " policy chose illegal cell " + cell + " after " + moves + " moves");
+            }
+            service.makeMove(cell / cols, cell % cols);
+            moves++;
+            player1ToMove = !player1ToMove;
+        }
+
+        counters[GAMES]++;
+        counters[MOVES] += moves;
+        lengths[moves]++;
+        String result = service.getGameResult();
+        if (!service.isGameOver()) {
+            counters[UNFINISHED]++;
+        } else if (result.equals("X")) {
+            counters[PLAYER1_WINS]++;
+        } else if (result.equals("O")) {
+            counters[PLAYER2_WINS]++;
+        } else {
+            counters[DRAWS]++;
+        }
+    }
+
+    public static class Result {
+        private final long[] totals;
+        // Number of games per game length in moves
+        private final long[] lengths;
+        private final long elapsedNanos;
+        private final int threads;
+
+        Result(long[] totals, long[] lengths, long elapsedNanos, int threads) {
+            this.totals = totals;
+            this.lengths = lengths;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public long getGames() {
+            return totals[GAMES];
+        }
+
+        public long getMoves() {
+            return totals[MOVES];
+        }
+
+        public long getPlayer1Wins() {
+            return totals[PLAYER1_WINS];
+        }
+
+        public long getPlayer2Wins() {
+            return totals[PLAYER2_WINS];
+        }
+
+        public long getDraws() {
+            return totals[DRAWS];
+        }
+
+        public long getUnfinished() {
+            return totals[UNFINISHED];
+        }
+
+        public double getGamesPerSecond() {
+            return totals[GAMES] * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public double getMovesPerSecond() {
+            return totals[MOVES] * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Smallest game length, in moves, that at least {@code percentile}
+         * percent of the games did not exceed.
+         */
+        public int getLengthPercentile(double percentile) {
+            long target = (long) Math.ceil(getGames() * percentile / 100.0);
+            long seen = 0;
+            for (int length = 0; length < lengths.length; length++) {
+                seen += lengths[length];
+                if (seen >= target && seen > 0) {
+                    return length;
+                }
+            }
+            return lengths.length - 1;
+        }
+
+        public double getMeanLength() {
+            return getGames() > 0 ? (double) getMoves() / getGames() : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            long games = Math.max(1, getGames());
+            return String.format(
+                    "Played %d games (%d moves) on %d threads in %.2f s%n"
+                            + "  %.0f games/s, %.0f moves/s%n"
+                            + "  Player 1 wins: %d (%.2f%%)%n"
+                            + "  Player 2 wins: %d (%.2f%%)%n"
+                            + "  Draws:         %d (%.2f%%)%n"
+                            + "  Unfinished:    %d (%.2f%%)%n"
+                            + "  Game length:   mean %.2f, min %d, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d moves",
+                    getGames(), getMoves(), threads, elapsedNanos / 1_000_000_000.0,
+                    getGamesPerSecond(), getMovesPerSecond(),
+                    getPlayer1Wins(), 100.0 * getPlayer1Wins() / games,
+                    getPlayer2Wins(), 100.0 * getPlayer2Wins() / games,
+                    getDraws(), 100.0 * getDraws() / games,
+                    getUnfinished(), 100.0 * getUnfinished() / games,
+                    getMeanLength(), getLengthPercentile(0), getLengthPercentile(50), getLengthPercentile(90),
+                    getLengthPercentile(99), getLengthPercentile(99.9), getLengthPercentile(100));
+        }
+    }
+}
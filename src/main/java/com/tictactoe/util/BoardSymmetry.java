@@ -0,0 +1,246 @@
+package com.tictactoe.util;
+
+import com.tictactoe.model.entity.Board;
+import com.tictactoe.model.entity.Game;
+import com.tictactoe.model.enums.Player;
+import com.tictactoe.service.GameService;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps positions to a canonical representative of their symmetry class, so
+ * caches and stored statistics can keep one entry for all positions that
+ * are rotations or reflections of each other.
+ *
+ * <p>Square boards have the eight symmetries of the dihedral group; other
+ * boards only the four that keep rows and columns in place. The canonical
+ * form is the lexicographically smallest image of the board. Cell lookup
+ * tables are built once per board geometry, and finding the canonical
+ * transform allocates nothing, so it is safe to call on hot paths from any
+ * thread. Building the canonical board only allocates its bitboards, as
+ * boards of one geometry share their Zobrist keys.</p>
+ */
+public class BoardSymmetry {
+    private static final Map<Long, BoardSymmetry> INSTANCES = new ConcurrentHashMap<>();
+
+    public enum Transform {
+        IDENTITY(false),
+        ROTATE_90(true),
+        ROTATE_180(false),
+        ROTATE_270(true),
+        FLIP_HORIZONTAL(false),
+        FLIP_VERTICAL(false),
+        TRANSPOSE(true),
+        ANTI_TRANSPOSE(true);
+
+        private final boolean swapsAxes;
+
+        Transform(boolean swapsAxes) {
+            this.swapsAxes = swapsAxes;
+        }
+
+        /**
+         * Whether the transform turns rows into columns, which is only a
+         * symmetry of square boards.
+         */
+        public boolean swapsAxes() {
+            return swapsAxes;
+        }
+
+        int mapRow(int row, int col, int rows, int cols) {
+            switch (this) {
+                case ROTATE_90: return col;
+                case ROTATE_180: case FLIP_VERTICAL: return rows - 1 - row;
+                case ROTATE_270: case ANTI_TRANSPOSE: return cols - 1 - col;
+                case TRANSPOSE: return col;
+                default: return row;
+            }
+        }
+
+        int mapCol(int row, int col, int rows, int cols) {
+            switch (this) {
+                case ROTATE_90: return rows - 1 - row;
+                case ROTATE_180: case FLIP_HORIZONTAL: return cols - 1 - col;
+                case ROTATE_270: case TRANSPOSE: return row;
+                case ANTI_TRANSPOSE: return rows - 1 - row;
+                default: return col;
+            }
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final Transform[] transforms;
+    // Indexed by transform ordinal; forward maps original to transformed cells, inverse the reverse
+    private final int[][] forward;
+    private final int[][] inverse;
+
+    private BoardSymmetry(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int size = rows * cols;
+        Transform[] all = Transform.values();
+        this.transforms = Arrays.stream(all)
+                .filter(t -> rows == cols || !t.swapsAxes())
+                .toArray(Transform[]::new);
+        this.forward = new int[all.length][];
+        this.inverse = new int[all.length][];
+        for (Transform transform : transforms) {
+            int[] to = new int[size];
+            int[] from = new int[size];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int original = row * cols + col;
+                    int mapped = transform.mapRow(row, col, rows, cols) * cols
+                            + transform.mapCol(row, col, rows, cols);
+                    to[original] = mapped;
+                    from[mapped] = original;
+                }
+            }
+            forward[transform.ordinal()] = to;
+            inverse[transform.ordinal()] = from;
+        }
+    }
+
+    public static BoardSymmetry of(int rows, int cols) {
+        return INSTANCES.computeIfAbsent(((long) rows << 32) | cols, key -> new BoardSymmetry(rows, cols));
+    }
+
+    public static CanonicalPosition canonicalize(Board board) {
+        return of(board.getRows(), board.getCols()).canonicalizeBoard(board);
+    }
+
+    public static CanonicalPosition canonicalize(Game game) {
+        return canonicalize(game.getBoardSnapshot());
+    }
+
+    public static CanonicalPosition canonicalize(GameService gameService) {
+        return canonicalize(gameService.getBoardSnapshot());
+    }
+
+    /**
+     * The symmetries of this geometry.
+     */
+    public Transform[] getTransforms() {
+        return transforms.clone();
+    }
+
+    /**
+     * Finds the transform that maps {@code board} onto its canonical form
+     * without building any intermediate board.
+     */
+    public Transform canonicalTransform(Board board) {
+        checkGeometry(board);
+        int size = rows * cols;
+        Transform best = Transform.IDENTITY;
+        int[] bestFrom = inverse[best.ordinal()];
+        for (int t = 1; t < transforms.length; t++) {
+            int[] from = inverse[transforms[t].ordinal()];
+            for (int i = 0; i < size; i++) {
+                int candidate = board.get(from[i]).ordinal();
+                int current = board.get(bestFrom[i]).ordinal();
+                if (candidate != current) {
+                    if (candidate < current) {
+                        best = transforms[t];
+                        bestFrom = from;
+                    }
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    public CanonicalPosition canonicalizeBoard(Board board) {
+        Transform transform = canonicalTransform(board);
+        return new CanonicalPosition(apply(board, transform), transform, this);
+    }
+
+    /**
+     * Returns a new board holding the image of {@code board} under {@code transform}.
+     */
+    public Board apply(Board board, Transform transform) {
+        checkGeometry(board);
+        int[] from = inverse[checkTransform(transform)];
+        Board result = new Board(rows, cols, board.getWinLength());
+        for (int i = 0; i < from.length; i++) {
+            Player player = board.get(from[i]);
+            if (player != Player.NONE) {
+                result.place(i, player);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps a cell index of the original board to its index after {@code transform}.
+     */
+    public int mapCell(int cell, Transform transform) {
+        return forward[checkTransform(transform)][cell];
+    }
+
+    /**
+     * Maps a cell index of the transformed board back to the original board.
+     */
+    public int unmapCell(int cell, Transform transform) {
+        return inverse[checkTransform(transform)][cell];
+    }
+
+    private int checkTransform(Transform transform) {
+        if (forward[transform.ordinal()] == null) {
+            throw new IllegalArgumentException(transform + " is not a symmetry of a " + rows + "x" + cols + " board");
+        }
+        return transform.ordinal();
+    }
+
+    private void checkGeometry(Board board) {
+        if (board.getRows() != rows || board.getCols() != cols) {
+            throw new IllegalArgumentException("Expected a " + rows + "x" + cols + " board but got "
+                    + board.getRows() + "x" + board.getCols());
+        }
+    }
+
+    /**
+     * A canonical board together with the transform that produced it, so moves
+     * chosen on the canonical board can be mapped back to the original one.
+     */
+    public static class CanonicalPosition {
+        private final Board board;
+        private final Transform transform;
+        private final BoardSymmetry symmetry;
+
+        CanonicalPosition(Board board, Transform transform, BoardSymmetry symmetry) {
+            this.board = board;
+            this.transform = transform;
+            this.symmetry = symmetry;
+        }
+
+        public Board getBoard() {
+            return board;
+        }
+
+        /**
+         * The transform mapping the original board onto {@link #getBoard()}.
+         */
+        public Transform getTransform() {
+            return transform;
+        }
+
+        /**
+         * Same for every position in the symmetry class, so usable as a cache key.
+         */
+        public long getHash() {
+            return board.getHash();
+        }
+
+        public int toCanonicalCell(int originalCell) {
+            return symmetry.mapCell(originalCell, transform);
+        }
+
+        public int toOriginalCell(int canonicalCell) {
+            return symmetry.unmapCell(canonicalCell, transform);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tictactoe.util;
+
+import com.tictactoe.model.entity.GameEntity;
+
+/**
+ * Elo rating arithmetic shared by the incremental updates made when a game
+ * is recorded, the in-memory leaderboard and the full recompute. All three
+ * must produce bit-identical ratings for the same games in the same order,
+ * so the formula lives only here.
+ */
+public final class EloRating {
+    public static final double INITIAL_RATING = 1500.0;
+    public static final double K_FACTOR = 32.0;
+    private static final double SCALE = 400.0;
+
+    private EloRating() {
+    }
+
+    /**
+     * Probability that a player rated {@code rating} beats one rated
+     * {@code opponentRating}, counting a draw as half a win.
+     */
+    public static double expectedScore(double rating, double opponentRating) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponentRating - rating) / SCALE));
+    }
+
+    /**
+     * Rating after scoring {@code score} (1 for a win, 0.5 for a draw, 0
+     * for a loss) against the opponent.
+     */
+    public static double updated(double rating, double opponentRating, double score) {
+        return rating + K_FACTOR * (score - expectedScore(rating, opponentRating));
+    }
+
+    /**
+     * Whether the game changes ratings: it must be finished and played
+     * between two different players.
+     */
+    public static boolean isRated(GameEntity game) {
+        return (game.isDraw() || game.getWinnerId() != null)
+                && !game.getPlayer1Id().equals(game.getPlayer2Id());
+    }
+
+    /**
+     * Player 1's score in a rated game.
+     */
+    public static double player1Score(GameEntity game) {
+        if (game.isDraw()) {
+            return 0.5;
+        }
+        return game.getPlayer1Id().equals(game.getWinnerId()) ? 1.0 : 0.0;
+    }
+}
@@ -0,0 +1,286 @@
+package com.tictactoe.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact, versioned encoding of a game's moves, as stored in the
+ * {@code games.moves} column.
+ *
+ * <p>The text form, used by the entities, archives and the API, lists
+ * {@code row,col,KIND} per move separated by {@code ;}, with KIND one of
+ * {@code X}, {@code O} or {@code CLEAR}, e.g. {@code 0,0,X;1,1,O}. The
+ * encoded form packs the same moves into a few bits each:</p>
+ * <pre>
+ * 1 byte    format version (high 4 bits), coordinate width w in bits (low 4 bits)
+ * varint    number of moves, 7 bits per byte, least significant first
+ * bits      per move: row (w bits), column (w bits), kind (2 bits),
+ *           most significant first, zero-padded to a whole byte
+ * </pre>
+ *
+ * <p>The width is the fewest bits that hold the largest coordinate, so a
+ * move on a 3x3 board takes 6 bits and one on a 15x15 board 10, against
+ * 6 to 10 characters as text. Decoding a value of an unknown version fails
+ * instead of misreading it, so the layout can change under a new version
+ * while old rows stay readable.</p>
+ *
+ * <p>Moves are listed in play order and player 1 always moves first, so
+ * the X and O entries alternate starting with player 1; CLEAR entries,
+ * from Endless boards, follow the move that filled the board and belong to
+ * neither player. Games recorded since player 1 was given the X stone
+ * start with an X. Games recorded before that start with an O, because
+ * player 1 used to place O stones even though the result named X the
+ * winner. Neither form is rewritten, so a reader that needs to know whose
+ * move an entry is takes player 1's stone from the first X or O entry
+ * rather than assuming X. The winner is stored separately, by player id,
+ * and never depends on the symbols.</p>
+ */
+public final class MoveCodec {
+    public static final int VERSION = 1;
+    // Move kinds, also the low two bits of GameService's move log entries
+    public static final int X = 0;
+    public static final int O = 1;
+    public static final int CLEAR = 2;
+    // Coordinates fit in 8 bits, which the entry packing below relies on
+    private static final int MAX_COORDINATE = 255;
+    // ASCII text of every coordinate and of each kind with its leading comma, for decode
+    private static final byte[][] COORDINATE_TEXT = new byte[MAX_COORDINATE + 1][];
+    private static final byte[][] KIND_TEXT = {
+            ",X".getBytes(StandardCharsets.US_ASCII),
+            ",O".getBytes(StandardCharsets.US_ASCII),
+            ",CLEAR".getBytes(StandardCharsets.US_ASCII)};
+    // Longest text of one move: "255,255,CLEAR;"
+    private static final int MAX_MOVE_TEXT = 14;
+
+    static {
+        for (int i = 0; i <= MAX_COORDINATE; i++) {
+            COORDINATE_TEXT[i] = Integer.toString(i).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private MoveCodec() {
+    }
+
+    /**
+     * Encodes the first {@code count} entries of a move log, each packed as
+     * {@code (cell << 2) | kind} with {@code cell = row * cols + col}.
+     */
+    public static byte[] encode(int[] moves, int count, int cols) {
+        int[] entries = new int[count];
+        int maxCoordinate = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = moves[i] >>> 2;
+            int row = cell / cols;
+            int col = cell % cols;
+            if (row > MAX_COORDINATE || col > MAX_COORDINATE) {
+                throw new IllegalArgumentException("Cell out of range: " + cell);
+            }
+            entries[i] = entry(row, col, moves[i] & 0x3);
+            maxCoordinate = Math.max(maxCoordinate, Math.max(row, col));
+        }
+        return pack(entries, count, maxCoordinate);
+    }
+
+    /**
+     * Encodes moves in the text form, or returns null if the text is not
+     * exactly that form (e.g. rows written before it existed), so that
+     * decoding always gives back the same text. Empty text is left alone
+     * too, as a played game always has moves.
+     */
+    public static byte[] encode(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return null;
+        }
+        int[] entries = new int[length / 6 + 1];
+        int count = 0;
+        int maxCoordinate = 0;
+        int pos = 0;
+        while (pos < length) {
+            if (count > 0) {
+                if (text.charAt(pos) != ';') {
+                    return null;
+                }
+                pos++;
+            }
+            long row = coordinate(text, pos);
+            if (row < 0 || !separatorAt(text, (int) row)) {
+                return null;
+            }
+            long col = coordinate(text, (int) row + 1);
+            if (col < 0 || !separatorAt(text, (int) col)) {
+                return null;
+            }
+            pos = (int) col + 1;
+            int kind;
+            if (text.startsWith("X", pos)) {
+                kind = X;
+                pos += 1;
+            } else if (text.startsWith("O", pos)) {
+                kind = O;
+                pos += 1;
+            } else if (text.startsWith("CLEAR", pos)) {
+                kind = CLEAR;
+                pos += 5;
+            } else {
+                return null;
+            }
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            int rowValue = (int) (row >>> 32);
+            int colValue = (int) (col >>> 32);
+            entries[count++] = entry(rowValue, colValue, kind);
+            maxCoordinate = Math.max(maxCoordinate, Math.max(rowValue, colValue));
+        }
+        return pack(entries, count, maxCoordinate);
+    }
+
+    /**
+     * Decodes to the text form.
+     *
+     * @throws IllegalArgumentException if the value has an unknown version
+     *         or is malformed
+     */
+    public static String decode(byte[] encoded) {
+        if (encoded.length == 0 || (encoded[0] & 0xFF) >>> 4 != VERSION) {
+            throw new IllegalArgumentException("Unsupported moves encoding version: "
+                    + (encoded.length == 0 ? "empty" : String.valueOf((encoded[0] & 0xFF) >>> 4)));
+        }
+        int width = encoded[0] & 0x0F;
+        int pos = 1;
+        int count = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos == encoded.length || shift > 28) {
+                throw new IllegalArgumentException("Malformed moves encoding");
+            }
+            byte b = encoded[pos++];
+            count |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        int moveBits = 2 * width + 2;
+        if (width == 0 || width > 8 || count < 0 || encoded.length - pos != (int) (((long) count * moveBits + 7) / 8)) {
+            throw new IllegalArgumentException("Malformed moves encoding");
+        }
+        int coordinateMask = (1 << width) - 1;
+        int moveMask = (1 << moveBits) - 1;
+        // The text is ASCII, so it is built as bytes and copied once into the String
+        byte[] text = new byte[count * MAX_MOVE_TEXT];
+        int length = 0;
+        long buffer = 0;
+        int buffered = 0;
+        for (int i = 0; i < count; i++) {
+            while (buffered < moveBits) {
+                buffer = buffer << 8 | (encoded[pos++] & 0xFF);
+                buffered += 8;
+            }
+            buffered -= moveBits;
+            int move = (int) (buffer >>> buffered) & moveMask;
+            int kind = move & 0x3;
+            if (kind >= KIND_TEXT.length) {
+                throw new IllegalArgumentException("Malformed moves encoding");
+            }
+            if (i > 0) {
+                text[length++] = ';';
+            }
+            length = append(text, length, COORDINATE_TEXT[move >>> (width + 2)]);
+            text[length++] = ',';
+            length = append(text, length, COORDINATE_TEXT[(move >>> 2) & coordinateMask]);
+            length = append(text, length, KIND_TEXT[kind]);
+        }
+        return new String(text, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Number of moves in the encoded value starting at {@code offset}, read
+     * from its header without decoding the moves.
+     *
+     * @throws IllegalArgumentException if the value has an unknown version
+     */
+    public static int moveCount(byte[] data, int offset) {
+        if ((data[offset] & 0xFF) >>> 4 != VERSION) {
+            throw new IllegalArgumentException("Unsupported moves encoding version: " + ((data[offset] & 0xFF) >>> 4));
+        }
+        int count = 0;
+        int pos = offset + 1;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[pos++];
+            count |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return count;
+            }
+        }
+    }
+
+    private static int append(byte[] text, int length, byte[] part) {
+        System.arraycopy(part, 0, text, length, part.length);
+        return length + part.length;
+    }
+
+    private static int entry(int row, int col, int kind) {
+        return row << 10 | col << 2 | kind;
+    }
+
+    private static byte[] pack(int[] entries, int count, int maxCoordinate) {
+        int width = 32 - Integer.numberOfLeadingZeros(Math.max(1, maxCoordinate));
+        int moveBits = 2 * width + 2;
+        int countBytes = 1;
+        for (int n = count; n >= 0x80; n >>>= 7) {
+            countBytes++;
+        }
+        byte[] out = new byte[1 + countBytes + (int) (((long) count * moveBits + 7) / 8)];
+        out[0] = (byte) (VERSION << 4 | width);
+        int pos = 1;
+        int n = count;
+        while (n >= 0x80) {
+            out[pos++] = (byte) (n | 0x80);
+            n >>>= 7;
+        }
+        out[pos++] = (byte) n;
+        // Only the low bits matter; older bits shifted out of the long were already written
+        long buffer = 0;
+        int buffered = 0;
+        for (int i = 0; i < count; i++) {
+            int entry = entries[i];
+            int move = (entry >>> 10) << (width + 2) | ((entry >>> 2) & 0xFF) << 2 | (entry & 0x3);
+            buffer = buffer << moveBits | move;
+            buffered += moveBits;
+            while (buffered >= 8) {
+                buffered -= 8;
+                out[pos++] = (byte) (buffer >>> buffered);
+            }
+        }
+        if (buffered > 0) {
+            out[pos] = (byte) (buffer << (8 - buffered));
+        }
+        return out;
+    }
+
+    /**
+     * Parses a coordinate without sign or leading zeros starting at
+     * {@code pos}, returning its value in the high and the position after
+     * it in the low 32 bits, or -1 if there is none.
+     */
+    private static long coordinate(String text, int pos) {
+        int end = pos;
+        int value = 0;
+        while (end < text.length() && end - pos < 4) {
+            char c = text.charAt(end);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            end++;
+        }
+        if (end == pos || value > MAX_COORDINATE || (text.charAt(pos) == '0' && end - pos > 1)) {
+            return -1;
+        }
+        return (long) value << 32 | end;
+    }
+
+    private static boolean separatorAt(String text, int pos) {
+        return pos < text.length() && text.charAt(pos) == ',';
+    }
+}
@@ -2,6 +2,7 @@ module com.tictactoe {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires jdk.httpserver;
     requires org.slf4j;
     requires ch.qos.logback.core;
     requires ch.qos.logback.classic;
@@ -0,0 +1,152 @@
+package com.tictactoe.repository;
+
+import com.tictactoe.model.entity.PlayerEntity;
+import com.tictactoe.repository.LeaderboardIndex.OrderTree;
+import com.tictactoe.repository.LeaderboardIndex.SortOrder;
+import com.tictactoe.repository.LeaderboardIndex.Standing;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the order-statistic trees behind the leaderboard against a plainly
+ * sorted list, under random inserts, updates and removals.
+ */
+class LeaderboardIndexTest {
+    private static final int OPERATIONS = 3_000;
+    // Few distinct values, so that ties, and the id tie-break, are common
+    private static final int MAX_GAMES = 12;
+
+    @Test
+    void orderTreeMatchesSortedList() {
+        for (SortOrder order : SortOrder.values()) {
+            Random random = new Random(order.ordinal());
+            OrderTree tree = new OrderTree(order.order);
+            Map<Long, Standing> current = new HashMap<>();
+            for (int op = 0; op < OPERATIONS; op++) {
+                long id = random.nextInt(200);
+                Standing previous = current.get(id);
+                if (previous != null) {
+                    tree.remove(previous);
+                    current.remove(id);
+                }
+                // Mostly inserts and updates, so the tree grows while still losing nodes
+                if (previous == null || random.nextInt(4) != 0) {
+                    Standing next = randomStanding(random, id);
+                    tree.insert(next);
+                    current.put(id, next);
+                }
+                if (op % 100 == 0) {
+                    assertTreeMatches(order, tree, current, random);
+                }
+            }
+            assertTreeMatches(order, tree, current, random);
+
+            // Rebuilding from the sorted list gives the same positions
+            List<Standing> sorted = sorted(order, current);
+            tree.build(sorted);
+            assertTreeMatches(order, tree, current, random);
+        }
+    }
+
+    @Test
+    void indexRanksAndPagesMatchSortedList() {
+        Random random = new Random(7);
+        LeaderboardIndex index = new LeaderboardIndex();
+        Map<Long, PlayerEntity> players = new HashMap<>();
+        for (int op = 0; op < OPERATIONS; op++) {
+            long id = random.nextInt(300);
+            PlayerEntity player = players.get(id);
+            if (player == null) {
+                player = new PlayerEntity("player" + id);
+                player.setId(id);
+                player.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+                // Only new players bring a rating; saving a known player keeps the indexed one
+                player.setRating(1200 + random.nextInt(8) * 25);
+                players.put(id, player);
+            }
+            player.setWins(random.nextInt(MAX_GAMES));
+            player.setLosses(random.nextInt(MAX_GAMES));
+            player.setDraws(random.nextInt(MAX_GAMES));
+            index.put(player);
+        }
+        assertEquals(players.size(), index.size());
+
+        for (SortOrder order : SortOrder.values()) {
+            Map<Long, Standing> standings = new HashMap<>();
+            players.forEach((id, player) -> standings.put(id, standingOf(player)));
+            List<Long> expected = ids(sorted(order, standings));
+
+            assertEquals(expected, idsOf(index.range(order, 0, players.size() + 10)));
+            assertEquals(expected.subList(0, 10), idsOf(index.top(order, 10)));
+            for (int i = 0; i < expected.size(); i++) {
+                long id = expected.get(i);
+                assertEquals(OptionalInt.of(i + 1), index.rankOf(id, order));
+                int from = Math.max(0, i - 3);
+                int to = Math.min(expected.size(), i + 4);
+                assertEquals(expected.subList(from, to), idsOf(index.around(id, order, 3)));
+            }
+            assertEquals(OptionalInt.empty(), index.rankOf(-1, order));
+            assertEquals(List.of(), index.around(-1, order, 3));
+        }
+    }
+
+    private static void assertTreeMatches(SortOrder order, OrderTree tree, Map<Long, Standing> current,
+                                          Random random) {
+        List<Standing> sorted = sorted(order, current);
+        List<Standing> all = new ArrayList<>();
+        tree.collect(0, Integer.MAX_VALUE, all);
+        assertEquals(ids(sorted), ids(all), order + ": order");
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i, tree.rank(sorted.get(i)), order + ": rank");
+        }
+        for (int check = 0; check < 20; check++) {
+            int from = random.nextInt(sorted.size() + 5);
+            int to = from + random.nextInt(30);
+            List<Standing> page = new ArrayList<>();
+            tree.collect(from, to, page);
+            List<Standing> expected = sorted.subList(Math.min(from, sorted.size()), Math.min(to, sorted.size()));
+            assertEquals(ids(expected), ids(page), order + ": range " + from + ".." + to);
+        }
+    }
+
+    private static List<Standing> sorted(SortOrder order, Map<Long, Standing> standings) {
+        List<Standing> sorted = new ArrayList<>(standings.values());
+        sorted.sort(order.order);
+        return sorted;
+    }
+
+    private static Standing randomStanding(Random random, long id) {
+        return new Standing(id, "player" + id, random.nextInt(MAX_GAMES), random.nextInt(MAX_GAMES),
+                random.nextInt(MAX_GAMES), 1200 + random.nextInt(8) * 25, null);
+    }
+
+    private static Standing standingOf(PlayerEntity player) {
+        return new Standing(player.getId(), player.getName(), player.getWins(), player.getLosses(),
+                player.getDraws(), player.getRating(), player.getCreatedAt());
+    }
+
+    private static List<Long> ids(List<Standing> standings) {
+        List<Long> ids = new ArrayList<>(standings.size());
+        for (Standing standing : standings) {
+            ids.add(standing.id);
+        }
+        return ids;
+    }
+
+    private static List<Long> idsOf(List<PlayerEntity> players) {
+        List<Long> ids = new ArrayList<>(players.size());
+        for (PlayerEntity player : players) {
+            ids.add(player.getId());
+        }
+        return ids;
+    }
+}
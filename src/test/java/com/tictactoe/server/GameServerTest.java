@@ -0,0 +1,149 @@
+package com.tictactoe.server;
+
+import com.tictactoe.model.enums.GameMode;
+import com.tictactoe.service.GameService;
+import com.tictactoe.service.GameSessionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Talks to a server on the loopback interface and checks that the frame
+ * parser stays in step with the byte stream after a bad frame.
+ */
+class GameServerTest {
+    private GameSessionManager sessions;
+    private GameServer server;
+    private SocketChannel client;
+
+    @BeforeEach
+    void start() throws IOException {
+        sessions = new GameSessionManager(GameService::new);
+        server = new GameServer(sessions);
+        InetSocketAddress address = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(address);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        client.close();
+        server.close();
+        sessions.close();
+    }
+
+    @Test
+    void truncatedFrameDoesNotSwallowTheNextOne() throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(GameProtocol.MAX_FRAME_BYTES);
+        // A MOVE whose length ends in the middle of its session id
+        out.putShort((short) 5).put(GameProtocol.MOVE).putInt(0);
+        GameProtocol.writeCreate(out, GameMode.FOUR_IN_A_ROW, "alice", "bob");
+        // Followed by more input, so a handler reading past its frame would be caught
+        GameProtocol.writeCreate(out, GameMode.CLASSIC, "carol", "dave");
+        send(out);
+
+        assertError(GameProtocol.ERROR_MALFORMED);
+        ByteBuffer game = readFrame();
+        assertEquals(GameProtocol.GAME, game.get());
+        long sessionId = game.getLong();
+        game.get(); // status
+        assertEquals(7, game.get());
+        assertEquals(7, game.get());
+        assertEquals(GameProtocol.GAME, readFrame().get());
+
+        // A CREATE cut off inside the second name, then a move that must still be read from its own start
+        out.putShort((short) 8).put(GameProtocol.CREATE).put((byte) GameProtocol.MODE_CLASSIC)
+                .put((byte) 1).put((byte) 'a').put((byte) 8).put(new byte[3]);
+        GameProtocol.writeMove(out, sessionId, 3, 3);
+        GameProtocol.writeSessionRequest(out, GameProtocol.STATE, sessionId);
+        send(out);
+
+        assertError(GameProtocol.ERROR_MALFORMED);
+        ByteBuffer moved = readFrame();
+        assertEquals(GameProtocol.MOVED, moved.get());
+        assertEquals(sessionId, moved.getLong());
+        assertEquals(1, moved.get());
+        ByteBuffer state = readFrame();
+        assertEquals(GameProtocol.GAME, state.get());
+        assertEquals(sessionId, state.getLong());
+        state.position(state.position() + 3);
+        // The move at (3, 3) is X's
+        assertEquals(1, state.get(state.position() + 3 * 7 + 3));
+    }
+
+    @Test
+    void frameSplitAcrossWritesIsReassembled() throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(GameProtocol.MAX_FRAME_BYTES);
+        GameProtocol.writeCreate(out, GameMode.GOMOKU, "alice", "bob");
+        out.flip();
+        while (out.hasRemaining()) {
+            client.write(ByteBuffer.wrap(new byte[] {out.get()}));
+        }
+
+        ByteBuffer game = readFrame();
+        assertEquals(GameProtocol.GAME, game.get());
+        game.getLong();
+        game.get();
+        assertEquals(15, game.get());
+    }
+
+    @Test
+    void createRejectsUnknownModeCode() throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(GameProtocol.MAX_FRAME_BYTES);
+        GameProtocol.writeCreate(out, GameMode.CLASSIC, "alice", "bob");
+        out.put(GameProtocol.HEADER_BYTES + 1, (byte) 42);
+        GameProtocol.writeCreate(out, GameMode.ENDLESS, "alice", "bob");
+        send(out);
+
+        assertError(GameProtocol.ERROR_MALFORMED);
+        assertEquals(GameProtocol.GAME, readFrame().get());
+    }
+
+    @Test
+    void modeCodesRoundTrip() {
+        for (GameMode mode : GameMode.values()) {
+            assertEquals(mode, GameProtocol.modeOf(GameProtocol.modeCode(mode)));
+        }
+        assertEquals(GameMode.CLASSIC, GameProtocol.modeOf(GameProtocol.MODE_CLASSIC));
+        assertEquals(GameMode.GOMOKU_VS_AI, GameProtocol.modeOf(GameProtocol.MODE_GOMOKU_VS_AI));
+    }
+
+    private void send(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            client.write(out);
+        }
+        out.clear();
+    }
+
+    private void assertError(byte code) throws IOException {
+        ByteBuffer frame = readFrame();
+        assertEquals(GameProtocol.ERROR, frame.get());
+        assertEquals(code, frame.get());
+    }
+
+    /**
+     * Reads one response frame, returning its type and payload.
+     */
+    private ByteBuffer readFrame() throws IOException {
+        ByteBuffer header = readFully(GameProtocol.HEADER_BYTES);
+        return readFully(header.getShort() & 0xFFFF);
+    }
+
+    private ByteBuffer readFully(int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (client.read(buffer) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+        }
+        return buffer.flip();
+    }
+}
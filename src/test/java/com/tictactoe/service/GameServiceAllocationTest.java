@@ -0,0 +1,115 @@
+package com.tictactoe.service;
+
+import com.tictactoe.model.enums.GameMode;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Playing a started game must not allocate: the board is a set of
+ * bitboards and the move log a reused int array. Covers moves, the Endless
+ * clearing of a full board, explicit clears and the result queries.
+ */
+class GameServiceAllocationTest {
+    private static final int WARMUP_GAMES = 20_000;
+    private static final int MEASURED_GAMES = 5_000;
+    // A one-off allocation by the JIT recompiling in between can land in any round, so the best round counts
+    private static final int MEASURED_ROUNDS = 5;
+    // Moves played on an Endless board after its first clearing, unless someone wins first
+    private static final int ENDLESS_EXTRA_MOVES = 12;
+    // A draw and an X win on the classic board, as {row, col} pairs
+    private static final int[][] DRAW = {{0, 0}, {0, 1}, {0, 2}, {1, 1}, {1, 0}, {1, 2}, {2, 1}, {2, 0}, {2, 2}};
+    private static final int[][] X_WINS = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {0, 2}};
+
+    @Test
+    void playingAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "allocation counting not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        GameService classic = new GameService();
+        classic.startNewGame("alice", "bob", GameMode.CLASSIC);
+        GameService endless = new GameService();
+        endless.startNewGame("alice", "bob", GameMode.ENDLESS);
+        endless.setSeed(42);
+        long moves = playGames(classic, endless, WARMUP_GAMES);
+        assertTrue(moves > WARMUP_GAMES / 3 * (DRAW.length + X_WINS.length + DRAW.length), "moves played: " + moves);
+
+        // What reading the counter itself costs, subtracted below
+        long overhead = -threads.getThreadAllocatedBytes(thread) + threads.getThreadAllocatedBytes(thread);
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            moves = playGames(classic, endless, MEASURED_GAMES);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before - overhead);
+        }
+
+        assertEquals(0, allocated, "bytes allocated over " + moves + " moves");
+    }
+
+    /**
+     * Plays classic draws, classic X wins and Endless games in turn,
+     * checking each outcome, and returns the number of moves played.
+     */
+    private static long playGames(GameService classic, GameService endless, int games) {
+        long moves = 0;
+        for (int game = 0; game < games; game++) {
+            switch (game % 3) {
+                case 0:
+                    moves += playScript(classic, DRAW);
+                    expect("classic draw", classic.isGameOver() && !classic.hasWinner()
+                            && classic.getGameResult().equals("DRAW"));
+                    break;
+                case 1:
+                    moves += playScript(classic, X_WINS);
+                    expect("classic X win", classic.isGameOver() && classic.hasWinner()
+                            && classic.getGameResult().equals("X"));
+                    break;
+                default:
+                    moves += playEndless(endless);
+                    break;
+            }
+        }
+        return moves;
+    }
+
+    private static int playScript(GameService service, int[][] script) {
+        service.resetGame();
+        for (int[] move : script) {
+            service.makeMove(move[0], move[1]);
+        }
+        return script.length;
+    }
+
+    private static int playEndless(GameService service) {
+        int moves = playScript(service, DRAW);
+        // The last move filled the board without a winner, so tiles were cleared instead of ending the game
+        expect("Endless clearing", !service.isGameOver() && !service.hasWinner() && service.getGameResult().isEmpty());
+        for (int extra = 0; extra < ENDLESS_EXTRA_MOVES && !service.isGameOver(); extra++) {
+            int cell = 0;
+            while (!service.isLegalMove(cell / 3, cell % 3)) {
+                cell++;
+            }
+            service.makeMove(cell / 3, cell % 3);
+            moves++;
+        }
+        if (service.isGameOver()) {
+            expect("Endless win", service.hasWinner() && !service.getGameResult().isEmpty());
+        } else {
+            service.clearTile(1, 1);
+            expect("Endless clear", service.isLegalMove(1, 1) && service.getGameResult().isEmpty());
+        }
+        return moves;
+    }
+
+    private static void expect(String what, boolean outcome) {
+        if (!outcome) {
+            throw new AssertionError("Unexpected outcome: " + what);
+        }
+    }
+}
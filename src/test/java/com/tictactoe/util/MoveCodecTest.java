@@ -0,0 +1,103 @@
+package com.tictactoe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoveCodecTest {
+
+    @Test
+    void roundTripsOnClassicBoard() {
+        assertRoundTrip(3, "0,0,X;1,1,O;2,2,X;1,1,CLEAR;0,2,O");
+    }
+
+    @Test
+    void roundTripsOnFourInARowBoard() {
+        assertRoundTrip(7, "3,3,X;6,6,O;0,6,X;6,0,O;2,5,CLEAR");
+    }
+
+    @Test
+    void roundTripsOnGomokuBoard() {
+        assertRoundTrip(15, "7,7,X;14,14,O;0,14,X;14,0,O;10,3,CLEAR;7,8,X");
+    }
+
+    @Test
+    void packsClassicMovesIntoSixBits() {
+        // 1 header byte, 1 count byte and 5 moves of 6 bits in 4 bytes
+        assertEquals(6, MoveCodec.encode("0,0,X;1,1,O;2,2,X;1,1,CLEAR;0,2,O").length);
+    }
+
+    @Test
+    void roundTripsManyMoves() {
+        // More than 127 moves takes a second count byte
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            if (i > 0) {
+                text.append(';');
+            }
+            text.append(i % 15).append(',').append(i / 20).append(i % 2 == 0 ? ",X" : ",O");
+        }
+        assertRoundTrip(15, text.toString());
+        assertEquals(300, MoveCodec.moveCount(MoveCodec.encode(text.toString()), 0));
+    }
+
+    @Test
+    void leavesNonCanonicalTextUnencoded() {
+        assertNull(MoveCodec.encode(""));
+        assertNull(MoveCodec.encode("01,0,X"));
+        assertNull(MoveCodec.encode("0,00,X"));
+        assertNull(MoveCodec.encode("0,0,X;"));
+        assertNull(MoveCodec.encode(";0,0,X"));
+        assertNull(MoveCodec.encode("0,0,x"));
+        assertNull(MoveCodec.encode("0,0,X;1,1,Y"));
+        assertNull(MoveCodec.encode("0, 0,X"));
+        assertNull(MoveCodec.encode("256,0,X"));
+    }
+
+    @Test
+    void decodeRejectsUnknownVersion() {
+        byte[] encoded = MoveCodec.encode("0,0,X;1,1,O");
+        encoded[0] = (byte) ((MoveCodec.VERSION + 1) << 4 | (encoded[0] & 0x0F));
+        assertThrows(IllegalArgumentException.class, () -> MoveCodec.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> MoveCodec.moveCount(encoded, 0));
+        assertThrows(IllegalArgumentException.class, () -> MoveCodec.decode(new byte[0]));
+    }
+
+    @Test
+    void decodeRejectsWrongLength() {
+        byte[] encoded = MoveCodec.encode("0,0,X;1,1,O;2,2,X");
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+        // The header alone, without the move count
+        assertThrows(IllegalArgumentException.class, () -> MoveCodec.decode(Arrays.copyOf(encoded, 1)));
+    }
+
+    /**
+     * Encodes the moves both from text and from a move log as GameService
+     * keeps it, and checks that both decode back to the same text.
+     */
+    private static void assertRoundTrip(int cols, String text) {
+        String[] parts = text.split(";");
+        int[] log = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String[] move = parts[i].split(",");
+            int cell = Integer.parseInt(move[0]) * cols + Integer.parseInt(move[1]);
+            int kind = move[2].equals("X") ? MoveCodec.X : move[2].equals("O") ? MoveCodec.O : MoveCodec.CLEAR;
+            log[i] = cell << 2 | kind;
+        }
+
+        byte[] fromText = MoveCodec.encode(text);
+        assertNotNull(fromText);
+        assertArrayEquals(fromText, MoveCodec.encode(log, log.length, cols));
+        assertEquals(text, MoveCodec.decode(fromText));
+        assertEquals(parts.length, MoveCodec.moveCount(fromText, 0));
+    }
+}